@@ -0,0 +1,113 @@
+package travelagency.nymble.benchmark;
+
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.CatalogStore;
+import travelagency.nymble.repository.TravelPackageRepository;
+import travelagency.nymble.service.TravelPackageService;
+
+/**
+ * Builds synthetic catalogs of a given size through the regular model constructors and service calls.
+ * <p>
+ * Activity {@code i} is named "Activity i" and lives at "Destination i / 10"; every ten destinations
+ * form a package. Passengers are numbered from 1 and spread round-robin over the packages, cycling
+ * through the standard, gold and premium types.
+ */
+public final class CatalogGenerator {
+    public static final int ACTIVITIES_PER_DESTINATION = 10;
+    public static final int DESTINATIONS_PER_PACKAGE = 10;
+
+    private static final String[] PASSENGER_TYPES = {"STANDARD", "GOLD", "PREMIUM"};
+
+    private CatalogGenerator() {
+    }
+
+    /**
+     * Generates a catalog.
+     *
+     * @param passengers       The number of passengers.
+     * @param activities       The number of activities.
+     * @param activityCapacity The capacity of every activity.
+     * @param balance          The starting balance of every passenger.
+     * @return The generated catalog.
+     */
+    public static Catalog generate(int passengers, int activities, int activityCapacity, double balance) {
+        CatalogStore catalogStore = new CatalogStore();
+        TravelPackageService service = new TravelPackageService(catalogStore);
+        TravelPackageRepository repository = new TravelPackageRepository(catalogStore);
+
+        int destinations = (activities + ACTIVITIES_PER_DESTINATION - 1) / ACTIVITIES_PER_DESTINATION;
+        int packages = (destinations + DESTINATIONS_PER_PACKAGE - 1) / DESTINATIONS_PER_PACKAGE;
+        for (int p = 0; p < packages; p++) {
+            service.createTravelPackage(new TravelPackage(p + 1, packageName(p), Integer.MAX_VALUE));
+        }
+        for (int d = 0; d < destinations; d++) {
+            service.addDestinationToTravelPackage(packageName(d / DESTINATIONS_PER_PACKAGE), new Destination(d + 1, destinationName(d)));
+        }
+        for (int a = 0; a < activities; a++) {
+            int d = a / ACTIVITIES_PER_DESTINATION;
+            Activity activity = new Activity(activityName(a), "Synthetic activity " + a, 10 + a % 90, activityCapacity, null);
+            service.addActivityToDestination(packageName(d / DESTINATIONS_PER_PACKAGE), destinationName(d), activity);
+        }
+        for (int n = 1; n <= passengers; n++) {
+            Passenger passenger = new Passenger("Passenger " + n, n, balance, PASSENGER_TYPES[n % PASSENGER_TYPES.length]);
+            service.addPassengerToTravelPackage(packageName(n % packages), passenger);
+        }
+        return new Catalog(service, repository, passengers, activities, packages);
+    }
+
+    /**
+     * Gets the name of the package with the given zero-based index.
+     *
+     * @param index The package index.
+     * @return The package name.
+     */
+    public static String packageName(int index) {
+        return "Package " + index;
+    }
+
+    /**
+     * Gets the name of the destination with the given zero-based index.
+     *
+     * @param index The destination index.
+     * @return The destination name.
+     */
+    public static String destinationName(int index) {
+        return "Destination " + index;
+    }
+
+    /**
+     * Gets the name of the activity with the given zero-based index.
+     *
+     * @param index The activity index.
+     * @return The activity name.
+     */
+    public static String activityName(int index) {
+        return "Activity " + index;
+    }
+
+    /**
+     * Gets the name of the destination holding the activity with the given zero-based index.
+     *
+     * @param activityIndex The activity index.
+     * @return The destination name.
+     */
+    public static String destinationNameOfActivity(int activityIndex) {
+        return destinationName(activityIndex / ACTIVITIES_PER_DESTINATION);
+    }
+
+    /**
+     * A generated catalog and the sizes it was generated with.
+     *
+     * @param service    The service holding the catalog.
+     * @param repository The repository sharing the catalog with the service.
+     * @param passengers The number of passengers.
+     * @param activities The number of activities.
+     * @param packages   The number of travel packages.
+     */
+    public record Catalog(TravelPackageService service, TravelPackageRepository repository,
+                          int passengers, int activities, int packages) {
+    }
+}
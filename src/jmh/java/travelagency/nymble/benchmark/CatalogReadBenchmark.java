@@ -0,0 +1,75 @@
+package travelagency.nymble.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import travelagency.nymble.dto.PassengerDetailsResponse;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.TravelPackage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the catalog read paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogReadBenchmark {
+
+    @Benchmark
+    public TravelPackage findTravelPackageByName(CatalogState state) {
+        int index = ThreadLocalRandom.current().nextInt(state.catalog.packages());
+        return state.catalog.repository().findTravelPackageByName(CatalogGenerator.packageName(index));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TravelPackage findTravelPackageByNameMultiThreaded(CatalogState state) {
+        return findTravelPackageByName(state);
+    }
+
+    @Benchmark
+    public List<Activity> getAvailableActivities(CatalogState state) {
+        return state.catalog.service().getAvailableActivities();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Activity> getAvailableActivitiesMultiThreaded(CatalogState state) {
+        return getAvailableActivities(state);
+    }
+
+    @Benchmark
+    public void printPassengerDetails(CatalogState state) {
+        int passengerNumber = 1 + ThreadLocalRandom.current().nextInt(state.catalog.passengers());
+        state.catalog.service().printPassengerDetails(passengerNumber);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void printPassengerDetailsMultiThreaded(CatalogState state) {
+        printPassengerDetails(state);
+    }
+
+    @Benchmark
+    public PassengerDetailsResponse getPassengerDetails(CatalogState state) {
+        int passengerNumber = 1 + ThreadLocalRandom.current().nextInt(state.catalog.passengers());
+        return state.catalog.service().getPassengerDetails(passengerNumber);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public PassengerDetailsResponse getPassengerDetailsMultiThreaded(CatalogState state) {
+        return getPassengerDetails(state);
+    }
+}
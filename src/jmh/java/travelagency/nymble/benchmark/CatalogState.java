@@ -0,0 +1,43 @@
+package travelagency.nymble.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Benchmark state holding a generated catalog shared by all benchmark threads.
+ * <p>
+ * Activities have effectively unlimited capacity and passengers an effectively unlimited balance, so
+ * sign-ups stay on the successful path for the whole run. Console output is discarded while the
+ * benchmark runs so that printing methods measure formatting rather than terminal I/O.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int passengers;
+
+    @Param({"10", "1000", "100000"})
+    public int activities;
+
+    public CatalogGenerator.Catalog catalog;
+
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = CatalogGenerator.generate(passengers, activities, Integer.MAX_VALUE, 1e15);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+}
@@ -0,0 +1,58 @@
+package travelagency.nymble.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@code TravelPackageService.signUpPassengerForActivity} with random passengers and
+ * activities drawn from the generated catalog.
+ * <p>
+ * Every sign-up adds to the passenger's activities and the activity's passengers, so the catalog is
+ * regenerated before each iteration; otherwise later iterations would measure ever longer lists.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignUpBenchmark {
+
+    @Benchmark
+    public void signUpPassengerForActivity(FreshCatalogState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int passengerNumber = 1 + random.nextInt(state.catalog.passengers());
+        int activityIndex = random.nextInt(state.catalog.activities());
+        state.catalog.service().signUpPassengerForActivity(passengerNumber,
+                CatalogGenerator.activityName(activityIndex), CatalogGenerator.destinationNameOfActivity(activityIndex));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void signUpPassengerForActivityMultiThreaded(FreshCatalogState state) {
+        signUpPassengerForActivity(state);
+    }
+
+    /**
+     * Catalog state that is regenerated before every iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class FreshCatalogState extends CatalogState {
+        @Setup(Level.Iteration)
+        public void regenerate() {
+            catalog = CatalogGenerator.generate(passengers, activities, Integer.MAX_VALUE, 1e15);
+        }
+    }
+}
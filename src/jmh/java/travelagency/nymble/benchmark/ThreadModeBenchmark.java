@@ -0,0 +1,91 @@
+package travelagency.nymble.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import travelagency.nymble.util.VirtualThreads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares platform and virtual threads for request handling at high concurrency.
+ * <p>
+ * Each invocation submits {@code requests} simulated requests at once. A request blocks for
+ * {@code blockingMicros} to stand in for a MySQL round trip and then signs a passenger up through the
+ * service, so it exercises both the wait and the sign-up locks. The platform mode uses a pool the size
+ * of Tomcat's default request pool; the virtual mode starts a virtual thread per request and needs
+ * Java 21 or later.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModeBenchmark {
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"1000", "10000"})
+    public int requests;
+
+    @Param({"1000"})
+    public int blockingMicros;
+
+    private CatalogGenerator.Catalog catalog;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = CatalogGenerator.generate(10_000, 1_000, Integer.MAX_VALUE, 1e15);
+        executor = mode.equals("virtual")
+                ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs one burst of requests; the score is bursts per second.
+     */
+    @Benchmark
+    public void handleRequests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        long blockingNanos = TimeUnit.MICROSECONDS.toNanos(blockingMicros);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    LockSupport.parkNanos(blockingNanos);
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int passengerNumber = 1 + random.nextInt(catalog.passengers());
+                    int activityIndex = random.nextInt(catalog.activities());
+                    catalog.service().signUpPassengerForActivity(passengerNumber,
+                            CatalogGenerator.activityName(activityIndex), CatalogGenerator.destinationNameOfActivity(activityIndex));
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
@@ -1,146 +1,132 @@
 package travelagency.nymble;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
-import travelagency.nymble.dao.*;
-import travelagency.nymble.model.*;
-import travelagency.nymble.service.TravelPackageService;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import travelagency.nymble.controller.AdmissionControlInterceptor;
+import travelagency.nymble.model.PassengerTier;
+import travelagency.nymble.model.PricingEngine;
+import travelagency.nymble.util.ConnectionPoolMetrics;
+import travelagency.nymble.util.VirtualThreads;
 
-import javax.sql.DataSource;
-import java.sql.SQLException;
+import java.util.Map;
 
 /**
  * Main application class for the Nymble Travel Agency system.
  */
 @SpringBootApplication
 @EntityScan("travelagency.nymble.model")
+@EnableCaching
 public class NymbleApplication {
 
+	/**
+	 * Starts the application. The catalog is loaded from the database by
+	 * {@link travelagency.nymble.service.CatalogHydrator} once the context is ready.
+	 *
+	 * @param args Command-line arguments.
+	 */
 	public static void main(String[] args) {
 		SpringApplication.run(NymbleApplication.class, args);
-		// Obtain the database connection
-		try {
-			// Obtain the DataSource
-			DataSource dataSource = createDataSource();
-
-			// Create an instance of JdbcTemplate using the DataSource
-			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-
-			// Create instances of the DAO classes and pass the JdbcTemplate
-			TravelPackageDAO travelPackageDAO = new TravelPackageDAO(jdbcTemplate);
-			DestinationDAO destinationDAO = new DestinationDAO(jdbcTemplate);
-			ActivityDAO activityDAO = new ActivityDAO(jdbcTemplate);
-			PassengerDAO passengerDAO = new PassengerDAO(jdbcTemplate);
-
-			// Example usage of the travel agency system
-			TravelPackageService travelPackageService = new TravelPackageService();
-			TravelPackage travelPackage1 = travelPackageDAO.getTravelPackageById(1);
-			TravelPackage travelPackage2 = travelPackageDAO.getTravelPackageById(2);
-
-			// Create a travel package
-			travelPackageService.createTravelPackage(travelPackage1);
-			travelPackageService.createTravelPackage(travelPackage2);
-
-			// Fetch destinations from the database
-			Destination destination1 = destinationDAO.getDestinationById(1);
-			Destination destination2 = destinationDAO.getDestinationById(2);
-			Destination destination3 = destinationDAO.getDestinationById(3);
-			Destination destination4 = destinationDAO.getDestinationById(4);
-			Destination destination5 = destinationDAO.getDestinationById(5);
-			Destination destination6 = destinationDAO.getDestinationById(6);
-			Destination destination7 = destinationDAO.getDestinationById(7);
-
-			// Add destinations to travel packages
-			travelPackageService.addDestinationToTravelPackage(travelPackage1.getName(), destination1);
-			travelPackageService.addDestinationToTravelPackage(travelPackage1.getName(), destination2);
-			travelPackageService.addDestinationToTravelPackage(travelPackage1.getName(), destination3);
-			travelPackageService.addDestinationToTravelPackage(travelPackage1.getName(), destination4);
-			travelPackageService.addDestinationToTravelPackage(travelPackage1.getName(), destination5);
-			travelPackageService.addDestinationToTravelPackage(travelPackage2.getName(), destination6);
-			travelPackageService.addDestinationToTravelPackage(travelPackage2.getName(), destination7);
-
-			// Fetch activities from the database
-			Activity activity1 = activityDAO.getActivityById(1);
-			Activity activity2 = activityDAO.getActivityById(2);
-			Activity activity3 = activityDAO.getActivityById(3);
-			Activity activity4 = activityDAO.getActivityById(4);
-			Activity activity5 = activityDAO.getActivityById(5);
-			Activity activity6 = activityDAO.getActivityById(6);
-			Activity activity7 = activityDAO.getActivityById(7);
-
-			// Add activities to destinations for Package 1
-			travelPackageService.addActivityToDestination(travelPackage1.getName(), destination1.getName(), activity1);
-			travelPackageService.addActivityToDestination(travelPackage1.getName(), destination2.getName(), activity2);
-			travelPackageService.addActivityToDestination(travelPackage1.getName(), destination3.getName(), activity3);
-			travelPackageService.addActivityToDestination(travelPackage1.getName(), destination4.getName(), activity4);
-			travelPackageService.addActivityToDestination(travelPackage1.getName(), destination5.getName(), activity5);
-
-			// Add activities to destinations for Package 2
-			travelPackageService.addActivityToDestination(travelPackage2.getName(), destination6.getName(), activity6);
-			travelPackageService.addActivityToDestination(travelPackage2.getName(), destination7.getName(), activity7);
-
-			// Fetch passengers from the database
-			Passenger passenger1 = passengerDAO.getPassengerById(1);
-			Passenger passenger2 = passengerDAO.getPassengerById(2);
-			Passenger passenger3 = passengerDAO.getPassengerById(3);
-			Passenger passenger4 = passengerDAO.getPassengerById(4);
-			Passenger passenger5 = passengerDAO.getPassengerById(5);
-
-			// Add passengers to the travel package
-			travelPackageService.addPassengerToTravelPackage(travelPackage1.getName(), passenger1);
-			travelPackageService.addPassengerToTravelPackage(travelPackage1.getName(), passenger2);
-			travelPackageService.addPassengerToTravelPackage(travelPackage1.getName(), passenger3);
-			travelPackageService.addPassengerToTravelPackage(travelPackage1.getName(), passenger4);
-			travelPackageService.addPassengerToTravelPackage(travelPackage1.getName(), passenger5);
-
-			// Sign up passengers for activities
-			travelPackageService.signUpPassengerForActivity(passenger1.getPassengerNumber(), activity1.getName(), destination1.getName());
-			travelPackageService.signUpPassengerForActivity(passenger2.getPassengerNumber(), activity2.getName(), destination2.getName());
-			travelPackageService.signUpPassengerForActivity(passenger3.getPassengerNumber(), activity3.getName(), destination3.getName());
-			travelPackageService.signUpPassengerForActivity(passenger4.getPassengerNumber(), activity4.getName(), destination4.getName());
-			travelPackageService.signUpPassengerForActivity(passenger5.getPassengerNumber(), activity5.getName(), destination5.getName());
-
-			// Print itinerary for Package 1
-			travelPackageService.printItinerary(travelPackage1.getName());
-
-			// Print itinerary for Package 2
-			travelPackageService.printItinerary(travelPackage2.getName());
-
-			// Print passenger list for Package 1
-			travelPackageService.printPassengerList(travelPackage1.getName());
+	}
 
-			// Print passenger list for Package 2
-			travelPackageService.printPassengerList(travelPackage2.getName());
+	/**
+	 * Creates the pooled DataSource shared by all DAOs. Connection and pool settings are bound from the
+	 * {@code spring.datasource} and {@code spring.datasource.hikari} properties.
+	 *
+	 * @param properties            The datasource connection properties.
+	 * @param connectionPoolMetrics The tracker recording pool activity.
+	 * @return DataSource object handing out pooled connections
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSource(DataSourceProperties properties, ConnectionPoolMetrics connectionPoolMetrics) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setMetricsTrackerFactory(connectionPoolMetrics);
+		return dataSource;
+	}
 
-			// Print passenger details
-			travelPackageService.printPassengerDetails(passenger3.getPassengerNumber());
+	/**
+	 * Creates the pricing engine used for sign-ups from the {@code nymble.pricing} properties.
+	 *
+	 * @param standardDiscount The discount of standard passengers, in percent.
+	 * @param goldDiscount     The discount of gold passengers, in percent.
+	 * @param premiumDiscount  The discount of premium passengers, in percent.
+	 * @param promotions       Extra discounts per destination as {@code destination:percent} pairs.
+	 * @return PricingEngine object quoting sign-ups
+	 */
+	@Bean
+	public PricingEngine pricingEngine(
+			@Value("${nymble.pricing.discount-percent.standard:0}") double standardDiscount,
+			@Value("${nymble.pricing.discount-percent.gold:10}") double goldDiscount,
+			@Value("${nymble.pricing.discount-percent.premium:100}") double premiumDiscount,
+			@Value("${nymble.pricing.promotions:}") String promotions
+	) {
+		return new PricingEngine(Map.of(
+				PassengerTier.STANDARD, PricingEngine.percentToBasisPoints(standardDiscount),
+				PassengerTier.GOLD, PricingEngine.percentToBasisPoints(goldDiscount),
+				PassengerTier.PREMIUM, PricingEngine.percentToBasisPoints(premiumDiscount)
+		), PricingEngine.parsePromotions(promotions));
+	}
 
-			// Print available activities
-			travelPackageService.printAvailableActivities();
+	/**
+	 * Records a timer for every method of classes annotated with {@link io.micrometer.core.annotation.Timed},
+	 * such as the DAOs.
+	 *
+	 * @param meterRegistry The registry the timers are registered in.
+	 * @return Aspect timing the annotated methods.
+	 */
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
 
-			// Rest of the code...
-		} catch (SQLException e) {
-			System.out.println("An error occurred while connecting to the database: " + e.getMessage());
-		}
+	/**
+	 * Puts admission control in front of the travel package API, so catalog reads and booking writes
+	 * cannot starve each other of request threads.
+	 *
+	 * @param admissionControlInterceptor The interceptor admitting or rejecting requests.
+	 * @return Configurer registering the interceptor.
+	 */
+	@Bean
+	public WebMvcConfigurer admissionControlConfigurer(AdmissionControlInterceptor admissionControlInterceptor) {
+		return new WebMvcConfigurer() {
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/api/travel-packages/**");
+			}
+		};
 	}
 
 	/**
-	 * Creates a DataSource for connecting to the database.
+	 * Serves HTTP requests, and the blocking DAO calls they make, on virtual threads instead of Tomcat's
+	 * platform thread pool. Enabled with {@code nymble.virtual-threads.enabled=true}; on runtimes without
+	 * virtual threads a warning is logged and the platform pool is kept.
 	 *
-	 * @return DataSource object representing the database connection
-	 * @throws SQLException if an error occurs while creating the DataSource
+	 * @return Customizer installing a virtual-thread-per-request executor.
 	 */
 	@Bean
-	private static DataSource createDataSource() throws SQLException {
-		DriverManagerDataSource dataSource = new DriverManagerDataSource();
-		dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-		dataSource.setUrl("jdbc:mysql://localhost:3306/travelagency");
-		dataSource.setUsername("root");
-		dataSource.setPassword("root");
-		return dataSource;
+	@ConditionalOnProperty(name = "nymble.virtual-threads.enabled", havingValue = "true")
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		if (!VirtualThreads.isSupported()) {
+			LoggerFactory.getLogger(NymbleApplication.class).warn(
+					"nymble.virtual-threads.enabled is set but Java {} has no virtual threads; using platform threads",
+					Runtime.version().feature());
+			return protocolHandler -> {
+			};
+		}
+		return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor());
 	}
 }
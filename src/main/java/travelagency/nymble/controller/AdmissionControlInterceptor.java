@@ -0,0 +1,119 @@
+package travelagency.nymble.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the travel package API.
+ * <p>
+ * Requests are split into two lanes, catalog reads ({@code GET}) and booking writes (everything
+ * else), each with its own bounded number of requests in progress. A burst in one lane is turned away
+ * with 429 Too Many Requests once its permits run out, instead of taking over the server's request
+ * threads, so the other lane keeps its latency. Per-passenger sign-up limits are applied by the
+ * controller through {@link SignUpRateLimiter}, after idempotent replays have been answered.
+ * <p>
+ * A permit is held while the request occupies a thread; requests that go asynchronous, such as
+ * long-polls for sign-up tickets, hand it back as soon as they release their thread.
+ */
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+    private static final String LANE_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".lane";
+    private static final long LANE_RETRY_AFTER_SECONDS = 1;
+
+    private final Lane readLane;
+    private final Lane writeLane;
+    private final long queueTimeoutNanos;
+
+    /**
+     * Constructor for AdmissionControlInterceptor.
+     *
+     * @param readPermits    The maximum number of catalog reads in progress at once.
+     * @param writePermits   The maximum number of booking writes in progress at once.
+     * @param queueTimeoutMs How long a request may wait for a permit before it is rejected, in milliseconds.
+     * @param meterRegistry  The registry the admission metrics are published to.
+     */
+    @Autowired
+    public AdmissionControlInterceptor(
+            @Value("${nymble.admission.read-permits:100}") int readPermits,
+            @Value("${nymble.admission.write-permits:50}") int writePermits,
+            @Value("${nymble.admission.queue-timeout-ms:0}") long queueTimeoutMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.readLane = new Lane("read", readPermits, meterRegistry);
+        this.writeLane = new Lane("write", writePermits, meterRegistry);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws InterruptedException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            // Async and error dispatches belong to a request that was already admitted.
+            return true;
+        }
+        Lane lane = HttpMethod.GET.matches(request.getMethod()) ? readLane : writeLane;
+        if (!lane.permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            lane.rejected.increment();
+            reject(response, LANE_RETRY_AFTER_SECONDS);
+            return false;
+        }
+        request.setAttribute(LANE_ATTRIBUTE, lane);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private static void release(HttpServletRequest request) {
+        Object lane = request.getAttribute(LANE_ATTRIBUTE);
+        if (lane != null) {
+            request.removeAttribute(LANE_ATTRIBUTE);
+            ((Lane) lane).permits.release();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    /**
+     * Bounded number of requests of one kind in progress at once.
+     */
+    private static final class Lane {
+        private final Semaphore permits;
+        private final Counter rejected;
+
+        private Lane(String name, int permits, MeterRegistry meterRegistry) {
+            this.permits = new Semaphore(permits);
+            this.rejected = Counter.builder("nymble.admission.rejections")
+                    .description("Requests rejected by admission control")
+                    .tag("reason", name + "-lane")
+                    .register(meterRegistry);
+            Gauge.builder("nymble.admission.in-flight", this.permits, semaphore -> permits - semaphore.availablePermits())
+                    .description("Requests in progress in an admission lane")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+    }
+}
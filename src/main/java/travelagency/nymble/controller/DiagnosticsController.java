@@ -0,0 +1,68 @@
+package travelagency.nymble.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import travelagency.nymble.dto.CacheStatistics;
+import travelagency.nymble.dto.ConnectionPoolStats;
+import travelagency.nymble.util.ConnectionPoolMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controller class exposing runtime statistics used to size the application's resources.
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+    private ConnectionPoolMetrics connectionPoolMetrics;
+    private CacheManager cacheManager;
+
+    /**
+     * Constructor for DiagnosticsController.
+     *
+     * @param connectionPoolMetrics Metrics recorded by the database connection pool.
+     * @param cacheManager          Manager of the DAO read caches.
+     */
+    @Autowired
+    public DiagnosticsController(ConnectionPoolMetrics connectionPoolMetrics, CacheManager cacheManager) {
+        this.connectionPoolMetrics = connectionPoolMetrics;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Gets the connection pool counts and acquire-latency statistics.
+     *
+     * @return The current connection pool statistics.
+     */
+    @GetMapping("/connection-pool")
+    public ConnectionPoolStats getConnectionPoolStats() {
+        return connectionPoolMetrics.snapshot();
+    }
+
+    /**
+     * Gets the hit and miss statistics of the DAO read caches.
+     *
+     * @return The statistics of each cache.
+     */
+    @GetMapping("/caches")
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                statistics.add(new CacheStatistics(name, nativeCache.estimatedSize(), stats.hitCount(),
+                        stats.missCount(), stats.hitRate(), stats.missRate(), stats.evictionCount()));
+            }
+        }
+        return statistics;
+    }
+}
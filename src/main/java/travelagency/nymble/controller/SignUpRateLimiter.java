@@ -0,0 +1,133 @@
+package travelagency.nymble.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.util.TokenBucket;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-passenger limit on the rate of sign-ups, shared by every endpoint that signs passengers up.
+ * <p>
+ * Each passenger gets a token bucket, so a single client retrying in a loop cannot crowd out everyone
+ * else. Sign-ups are checked inside their idempotent action, so a retry answered from an earlier
+ * request with the same idempotency key never spends a token; bulk sign-ups are checked entry by entry.
+ */
+@Component
+public class SignUpRateLimiter {
+    private final double signUpsPerSecond;
+    private final int signUpBurst;
+    private final Cache<Integer, TokenBucket> buckets;
+    private final Counter rateLimited;
+
+    /**
+     * Constructor for SignUpRateLimiter.
+     *
+     * @param signUpsPerSecond The sustained rate of sign-ups allowed per passenger.
+     * @param signUpBurst      The number of sign-ups a passenger may make at once after being idle.
+     * @param meterRegistry    The registry the rejection counter is published to.
+     */
+    @Autowired
+    public SignUpRateLimiter(
+            @Value("${nymble.admission.sign-ups-per-second:5}") double signUpsPerSecond,
+            @Value("${nymble.admission.sign-up-burst:10}") int signUpBurst,
+            MeterRegistry meterRegistry
+    ) {
+        this.signUpsPerSecond = signUpsPerSecond;
+        this.signUpBurst = signUpBurst;
+        // An idle passenger's bucket would be full again by the time it expires, so forgetting it is free.
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(signUpBurst / signUpsPerSecond * TimeUnit.SECONDS.toNanos(1))))
+                .build();
+        this.rateLimited = Counter.builder("nymble.admission.rejections")
+                .description("Requests rejected by admission control")
+                .tag("reason", "passenger-rate")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a sign-up token for a passenger if one is available.
+     *
+     * @param passengerNumber The passenger number.
+     * @return true if the sign-up may go ahead, false if the passenger is over their rate.
+     */
+    public boolean tryAcquire(int passengerNumber) {
+        if (bucketFor(passengerNumber).tryAcquire()) {
+            return true;
+        }
+        rateLimited.increment();
+        return false;
+    }
+
+    /**
+     * Takes a sign-up token for a passenger, failing if none is available.
+     *
+     * @param passengerNumber The passenger number.
+     * @throws RateLimitedException if the passenger is over their rate.
+     */
+    public void acquire(int passengerNumber) {
+        if (!tryAcquire(passengerNumber)) {
+            throw new RateLimitedException(passengerNumber, getRetryAfterSeconds(passengerNumber));
+        }
+    }
+
+    /**
+     * Gets the number of whole seconds until a passenger may sign up again, for a Retry-After header.
+     *
+     * @param passengerNumber The passenger number.
+     * @return The wait in seconds, at least 1.
+     */
+    public long getRetryAfterSeconds(int passengerNumber) {
+        long nanos = nanosUntilAvailable(passengerNumber);
+        long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, (nanos + nanosPerSecond - 1) / nanosPerSecond);
+    }
+
+    /**
+     * Gets the time until a passenger may sign up again.
+     *
+     * @param passengerNumber The passenger number.
+     * @return The wait in nanoseconds, or 0 if a sign-up is allowed now.
+     */
+    public long nanosUntilAvailable(int passengerNumber) {
+        return bucketFor(passengerNumber).nanosUntilAvailable();
+    }
+
+    private TokenBucket bucketFor(int passengerNumber) {
+        return buckets.get(passengerNumber, key -> new TokenBucket(signUpsPerSecond, signUpBurst));
+    }
+
+    /**
+     * Thrown when a passenger signs up more often than their rate allows.
+     */
+    public static class RateLimitedException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        /**
+         * Constructs a RateLimitedException object.
+         *
+         * @param passengerNumber   The passenger number.
+         * @param retryAfterSeconds The number of seconds until the passenger may sign up again.
+         */
+        public RateLimitedException(int passengerNumber, long retryAfterSeconds) {
+            super("Too many sign-ups for passenger " + passengerNumber + "; try again later.");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        /**
+         * Gets the number of seconds until the passenger may sign up again.
+         *
+         * @return The wait in seconds.
+         */
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
@@ -1,36 +1,78 @@
 package travelagency.nymble.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import travelagency.nymble.dto.ActivityResponse;
+import travelagency.nymble.dto.AffordableActivitiesResponse;
+import travelagency.nymble.dto.CatalogSnapshotResponse;
+import travelagency.nymble.dto.ItineraryResponse;
+import travelagency.nymble.dto.PassengerDetailsResponse;
+import travelagency.nymble.dto.PassengerListResponse;
+import travelagency.nymble.dto.SignUpRequest;
+import travelagency.nymble.dto.SignUpResult;
+import travelagency.nymble.dto.SignUpTicketResponse;
 import travelagency.nymble.model.Activity;
 import travelagency.nymble.model.Destination;
 import travelagency.nymble.model.Passenger;
 import travelagency.nymble.model.TravelPackage;
 import travelagency.nymble.repository.TravelPackageRepository;
+import travelagency.nymble.service.AsyncSignUpService;
+import travelagency.nymble.service.CatalogSnapshotService;
+import travelagency.nymble.service.IdempotencyService;
+import travelagency.nymble.service.SignUpStatus;
 import travelagency.nymble.service.TravelPackageService;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Controller class for handling travel package-related API endpoints.
  */
 @RestController
 @RequestMapping("/api/travel-packages")
 public class TravelPackageController {
+    private static final long MAX_TICKET_WAIT_MILLIS = 20_000;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private TravelPackageRepository travelPackageRepository;
     private TravelPackageService travelPackageService;
+    private CatalogSnapshotService catalogSnapshotService;
+    private AsyncSignUpService asyncSignUpService;
+    private IdempotencyService idempotencyService;
+    private SignUpRateLimiter signUpRateLimiter;
 
     /**
      * Constructor for TravelPackageController.
      *
      * @param travelPackageRepository Repository for travel packages.
      * @param travelPackageService    Service for managing travel packages.
+     * @param catalogSnapshotService  Service writing catalog snapshots.
+     * @param asyncSignUpService      Service queueing sign-ups for background processing.
+     * @param idempotencyService      Service deduplicating retried sign-ups.
+     * @param signUpRateLimiter       Per-passenger limit on sign-ups.
      */
     @Autowired
     public TravelPackageController(
             TravelPackageRepository travelPackageRepository,
-            TravelPackageService travelPackageService
+            TravelPackageService travelPackageService,
+            CatalogSnapshotService catalogSnapshotService,
+            AsyncSignUpService asyncSignUpService,
+            IdempotencyService idempotencyService,
+            SignUpRateLimiter signUpRateLimiter
     ) {
         this.travelPackageRepository = travelPackageRepository;
         this.travelPackageService = travelPackageService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.asyncSignUpService = asyncSignUpService;
+        this.idempotencyService = idempotencyService;
+        this.signUpRateLimiter = signUpRateLimiter;
     }
 
     /**
@@ -54,10 +96,7 @@ public class TravelPackageController {
             @PathVariable String packageName,
             @RequestBody Destination destination
     ) {
-        TravelPackage travelPackage = travelPackageRepository.findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            travelPackage.addDestination(destination);
-        }
+        travelPackageRepository.addDestinationToTravelPackage(packageName, destination);
     }
 
     /**
@@ -73,14 +112,7 @@ public class TravelPackageController {
             @PathVariable String destinationName,
             @RequestBody Activity activity
     ) {
-        TravelPackage travelPackage = travelPackageRepository.findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            Destination destination = travelPackage.findDestinationByName(destinationName);
-            if (destination != null) {
-                activity.setDestination(destination);
-                destination.addActivity(activity);
-            }
-        }
+        travelPackageRepository.addActivityToDestination(packageName, destinationName, activity);
     }
 
     /**
@@ -94,67 +126,238 @@ public class TravelPackageController {
             @PathVariable String packageName,
             @RequestBody Passenger passenger
     ) {
-        TravelPackage travelPackage = travelPackageRepository.findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            travelPackage.addPassenger(passenger);
-        }
+        travelPackageRepository.addPassengerToTravelPackage(packageName, passenger);
     }
 
     /**
-     * Signs up a passenger for an activity.
+     * Signs up a passenger for an activity. A retry sent with the same idempotency key as an earlier
+     * request gets the earlier outcome instead of signing up again, without counting against the
+     * passenger's sign-up rate.
      *
      * @param passengerNumber The passenger number.
      * @param activityName    The name of the activity.
      * @param destinationName The name of the destination.
+     * @param idempotencyKey  The client-chosen key identifying the request across retries, if any.
+     * @return 200 OK once signed up, 400 Bad Request if the key is too long, 409 Conflict if an earlier
+     * request with the key is still running, 422 Unprocessable Entity if the key was already used
+     * for a different sign-up, or 429 Too Many Requests with a Retry-After header if the passenger is
+     * signing up too often.
      */
     @PostMapping("/passengers/{passengerNumber}/activities")
-    public void signUpPassengerForActivity(
+    public ResponseEntity<Void> signUpPassengerForActivity(
+            @PathVariable int passengerNumber,
+            @RequestParam String activityName,
+            @RequestParam String destinationName,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey != null && idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            idempotencyService.execute(idempotencyKey, new SignUpRequest(passengerNumber, activityName, destinationName), () -> {
+                signUpRateLimiter.acquire(passengerNumber);
+                travelPackageService.signUpPassengerForActivity(passengerNumber, activityName, destinationName);
+                return null;
+            });
+        } catch (SignUpRateLimiter.RateLimitedException e) {
+            return tooManyRequests(e.getRetryAfterSeconds());
+        } catch (IdempotencyService.IdempotencyKeyInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IdempotencyService.IdempotencyKeyConflictException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Queues a sign-up of a passenger for an activity and returns without waiting for it.
+     *
+     * @param passengerNumber The passenger number.
+     * @param activityName    The name of the activity.
+     * @param destinationName The name of the destination.
+     * @return 202 Accepted with the ticket to poll, or 429 Too Many Requests with a Retry-After header
+     * if the passenger is signing up too often or the sign-up queue is full.
+     */
+    @PostMapping("/passengers/{passengerNumber}/activities/async")
+    public ResponseEntity<SignUpTicketResponse> submitSignUp(
             @PathVariable int passengerNumber,
             @RequestParam String activityName,
             @RequestParam String destinationName
     ) {
-        travelPackageService.signUpPassengerForActivity(passengerNumber, activityName, destinationName);
+        if (!signUpRateLimiter.tryAcquire(passengerNumber)) {
+            return tooManyRequests(signUpRateLimiter.getRetryAfterSeconds(passengerNumber));
+        }
+        String ticketId = asyncSignUpService.submit(new SignUpRequest(passengerNumber, activityName, destinationName));
+        if (ticketId == null) {
+            return tooManyRequests(asyncSignUpService.getRetryAfterSeconds());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/travel-packages/sign-up-tickets/" + ticketId))
+                .body(new SignUpTicketResponse(ticketId, false, null));
+    }
+
+    /**
+     * Retrieves the state of a queued sign-up, optionally waiting for it to complete.
+     *
+     * @param ticketId   The ticket returned when the sign-up was queued.
+     * @param waitMillis How long to wait for the result, in milliseconds; capped at 20 seconds.
+     * @return The ticket with its result once processed, 202 Accepted while still pending, or 404 if
+     * the ticket is unknown or has expired.
+     */
+    @GetMapping("/sign-up-tickets/{ticketId}")
+    public CompletableFuture<ResponseEntity<SignUpTicketResponse>> getSignUpTicket(
+            @PathVariable String ticketId,
+            @RequestParam(defaultValue = "0") long waitMillis
+    ) {
+        return asyncSignUpService.getTicket(ticketId, Math.min(waitMillis, MAX_TICKET_WAIT_MILLIS))
+                .thenApply(ticket -> {
+                    if (ticket == null) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    return ticket.completed() ? ResponseEntity.ok(ticket) : ResponseEntity.accepted().body(ticket);
+                });
+    }
+
+    /**
+     * Signs up a batch of passengers for activities in one request. A retry sent with the same
+     * idempotency key as an earlier request gets the earlier results instead of signing up again.
+     * Every entry counts against its passenger's sign-up rate; entries over it are answered with
+     * {@link SignUpStatus#RATE_LIMITED} and the rest go ahead.
+     *
+     * @param requests       The sign-up requests.
+     * @param idempotencyKey The client-chosen key identifying the request across retries, if any.
+     * @return The result of each request, in request order, 400 Bad Request if the key is too long, 409
+     * Conflict if an earlier request with the key is still running, or 422 Unprocessable Entity if the
+     * key was already used for a different batch.
+     */
+    @PostMapping("/passengers/activities/bulk")
+    public ResponseEntity<List<SignUpResult>> signUpPassengersForActivities(
+            @RequestBody List<SignUpRequest> requests,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey != null && idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, requests,
+                    () -> signUpWithinRateLimit(requests)));
+        } catch (IdempotencyService.IdempotencyKeyInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IdempotencyService.IdempotencyKeyConflictException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .build();
+    }
+
+    private List<SignUpResult> signUpWithinRateLimit(List<SignUpRequest> requests) {
+        SignUpResult[] results = new SignUpResult[requests.size()];
+        List<SignUpRequest> admitted = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            SignUpRequest request = requests.get(i);
+            if (signUpRateLimiter.tryAcquire(request.passengerNumber())) {
+                admitted.add(request);
+            } else {
+                results[i] = SignUpResult.of(request, SignUpStatus.RATE_LIMITED,
+                        "Too many sign-ups for passenger " + request.passengerNumber() + "; try again later.");
+            }
+        }
+        if (admitted.size() == requests.size()) {
+            return travelPackageService.signUpPassengersForActivities(requests);
+        }
+        Iterator<SignUpResult> admittedResults = travelPackageService.signUpPassengersForActivities(admitted).iterator();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = admittedResults.next();
+            }
+        }
+        return List.of(results);
     }
 
     /**
-     * Prints the itinerary for a travel package.
+     * Retrieves the itinerary for a travel package.
      *
      * @param packageName The name of the travel package.
+     * @return The itinerary, or 404 if the travel package is not found.
      */
     @GetMapping("/{packageName}/itinerary")
-    public void printItinerary(@PathVariable String packageName) {
-        travelPackageService.printItinerary(packageName);
+    public ResponseEntity<ItineraryResponse> getItinerary(@PathVariable String packageName) {
+        return ResponseEntity.ofNullable(travelPackageService.getItinerary(packageName));
     }
 
     /**
-     * Prints the passenger list for a destination in a travel package.
+     * Retrieves the passenger list for a destination in a travel package.
      *
-     * @param packageName    The name of the travel package.
+     * @param packageName     The name of the travel package.
      * @param destinationName The name of the destination.
+     * @return The passenger list, or 404 if the travel package is not found.
      */
     @GetMapping("/{packageName}/passenger-list/{destinationName}")
-    public void printPassengerList(
+    public ResponseEntity<PassengerListResponse> getPassengerList(
             @PathVariable String packageName,
             @PathVariable String destinationName
     ) {
-        travelPackageService.printPassengerList(packageName);
+        return ResponseEntity.ofNullable(travelPackageService.getPassengerList(packageName));
     }
 
     /**
-     * Prints the details of a passenger.
+     * Retrieves the details of a passenger.
      *
      * @param passengerNumber The passenger number.
+     * @return The passenger details, or 404 if the passenger is not found.
      */
     @GetMapping("/passengers/{passengerNumber}")
-    public void printPassengerDetails(@PathVariable int passengerNumber) {
-        travelPackageService.printPassengerDetails(passengerNumber);
+    public ResponseEntity<PassengerDetailsResponse> getPassengerDetails(@PathVariable int passengerNumber) {
+        return ResponseEntity.ofNullable(travelPackageService.getPassengerDetails(passengerNumber));
     }
 
     /**
-     * Prints the available activities.
+     * Retrieves a page of the available activities a passenger can afford, cheapest first.
+     *
+     * @param passengerNumber The passenger number.
+     * @param afterCost       The cost part of the cursor returned with the previous page.
+     * @param afterId         The id part of the cursor returned with the previous page.
+     * @param limit           The maximum number of activities to return.
+     * @return The page of affordable activities, 404 if the passenger is not found, or 400 Bad Request
+     * if the cursor is incomplete or negative.
+     */
+    @GetMapping("/passengers/{passengerNumber}/affordable-activities")
+    public ResponseEntity<AffordableActivitiesResponse> getAffordableActivities(
+            @PathVariable int passengerNumber,
+            @RequestParam(required = false) Double afterCost,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            return ResponseEntity.ofNullable(travelPackageService.getAffordableActivities(passengerNumber, afterCost, afterId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Retrieves the available activities.
+     *
+     * @return The activities that still have seats available.
      */
     @GetMapping("/available-activities")
-    public void printAvailableActivities() {
-        travelPackageService.printAvailableActivities();
+    public List<ActivityResponse> getAvailableActivities() {
+        return travelPackageService.listAvailableActivities();
+    }
+
+    /**
+     * Writes a binary snapshot of the whole catalog that the next start can load instead of the database.
+     *
+     * @return A summary of the snapshot, or 204 No Content if the catalog is empty.
+     * @throws IOException if the snapshot file cannot be written.
+     */
+    @PostMapping("/catalog-snapshot")
+    public ResponseEntity<CatalogSnapshotResponse> writeCatalogSnapshot() throws IOException {
+        CatalogSnapshotResponse response = catalogSnapshotService.writeSnapshot();
+        return response != null ? ResponseEntity.ok(response) : ResponseEntity.noContent().build();
     }
 }
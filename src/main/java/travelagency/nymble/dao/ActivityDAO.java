@@ -1,22 +1,44 @@
 package travelagency.nymble.dao;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import travelagency.nymble.model.Activity;
 import travelagency.nymble.model.Destination;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Data Access Object (DAO) class for accessing activity-related data from the database.
+ * <p>
+ * Activities are read together with their destination through a JOIN, so loading them never issues a
+ * separate destination query per row.
  */
 @Repository
+@Timed(value = "nymble.dao", description = "Time spent in DAO calls")
 public class ActivityDAO {
-    private JdbcTemplate jdbcTemplate;
+    /**
+     * Name of the cache holding activity rows read by ID.
+     */
+    public static final String CACHE_NAME = "activities";
 
-    private DestinationDAO destinationDAO;
+    private static final String SELECT_WITH_DESTINATION =
+            "SELECT a.id, a.name, a.description, a.cost, a.capacity, a.destination_id, d.name AS destination_name "
+                    + "FROM activity a JOIN destination d ON d.id = a.destination_id";
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     /**
      * Constructor for ActivityDAO.
@@ -26,7 +48,7 @@ public class ActivityDAO {
     @Autowired
     public ActivityDAO(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
-        this.destinationDAO = new DestinationDAO(jdbcTemplate);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
     /**
@@ -35,18 +57,127 @@ public class ActivityDAO {
      * @param id The ID of the activity.
      * @return The Activity object corresponding to the given ID, or null if not found.
      */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#id")
     public Activity getActivityById(int id) {
-        String query = "SELECT * FROM activity WHERE id = ?";
-        return jdbcTemplate.queryForObject(query, (resultSet, rowNum) -> mapActivity(resultSet), id);
+        String query = SELECT_WITH_DESTINATION + " WHERE a.id = ?";
+        Map<Integer, Destination> destinations = new HashMap<>();
+        return jdbcTemplate.queryForObject(query, (resultSet, rowNum) -> mapActivity(resultSet, destinations), id);
+    }
+
+    /**
+     * Drops an activity from the read cache so the next lookup goes to the database. Call this after
+     * the row has been changed.
+     *
+     * @param id The ID of the activity.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#id")
+    public void evict(int id) {
+    }
+
+    /**
+     * Takes one seat on an activity if it has any left, in a single conditional statement so that
+     * concurrent bookings from any number of nodes are arbitrated by the database.
+     *
+     * @param id The ID of the activity.
+     * @return true if a seat was taken, false if the activity is sold out or does not exist.
+     */
+    public boolean reserveSeat(int id) {
+        String query = "UPDATE activity SET capacity = capacity - 1 WHERE id = ? AND capacity > 0";
+        return jdbcTemplate.update(query, id) == 1;
+    }
+
+    /**
+     * Drops every cached activity.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    public void evictAll() {
+    }
+
+    /**
+     * Retrieves all activities from the database in a single query.
+     *
+     * @return The list of activities, ordered by ID. Activities at the same destination share one
+     * Destination instance.
+     */
+    public List<Activity> findAll() {
+        return findAll(new HashMap<>());
+    }
+
+    /**
+     * Retrieves all activities from the database in a single query, attaching them to already loaded
+     * destinations where possible.
+     *
+     * @param destinations Destinations keyed by ID to reuse; destinations not in the map are created
+     *                     from the joined row and added to it.
+     * @return The list of activities, ordered by ID.
+     */
+    public List<Activity> findAll(Map<Integer, Destination> destinations) {
+        String query = SELECT_WITH_DESTINATION + " ORDER BY a.id";
+        return jdbcTemplate.query(query, (resultSet, rowNum) -> mapActivity(resultSet, destinations));
+    }
+
+    /**
+     * Retrieves the activities with the given IDs using multi-row IN queries.
+     *
+     * @param ids The IDs of the activities.
+     * @return The found activities keyed by ID. Missing IDs are left out. Activities at the same
+     * destination share one Destination instance.
+     */
+    public Map<Integer, Activity> findByIds(Collection<Integer> ids) {
+        return findByIds(ids, new HashMap<>());
+    }
+
+    /**
+     * Retrieves the activities with the given IDs using multi-row IN queries, attaching them to already
+     * loaded destinations where possible.
+     *
+     * @param ids          The IDs of the activities.
+     * @param destinations Destinations keyed by ID to reuse; destinations not in the map are created
+     *                     from the joined row and added to it.
+     * @return The found activities keyed by ID. Missing IDs are left out.
+     */
+    public Map<Integer, Activity> findByIds(Collection<Integer> ids, Map<Integer, Destination> destinations) {
+        String query = SELECT_WITH_DESTINATION + " WHERE a.id IN (:ids) ORDER BY a.id";
+        Map<Integer, Activity> activities = new LinkedHashMap<>();
+        for (List<Integer> chunk : DAOUtil.chunks(ids)) {
+            namedParameterJdbcTemplate.query(query, Map.of("ids", chunk), (resultSet, rowNum) -> mapActivity(resultSet, destinations))
+                    .forEach(activity -> activities.put(activity.getId(), activity));
+        }
+        return activities;
+    }
+
+    /**
+     * Streams every activity row to a consumer without buffering the whole table. The activities are
+     * created without a destination so that the caller can attach them to destinations it loaded itself.
+     *
+     * @param consumer Receives each activity with the ID of its destination.
+     */
+    public void streamAll(ObjIntConsumer<Activity> consumer) {
+        String query = "SELECT * FROM activity";
+        jdbcTemplate.query(DAOUtil.streamingStatement(query),
+                resultSet -> {
+                    consumer.accept(mapActivity(resultSet, null), resultSet.getInt("destination_id"));
+                });
     }
 
-    private Activity mapActivity(ResultSet resultSet) throws SQLException {
+    // Without a destinations map the row need not carry the joined destination columns.
+    private Activity mapActivity(ResultSet resultSet, Map<Integer, Destination> destinations) throws SQLException {
+        int id = resultSet.getInt("id");
         String name = resultSet.getString("name");
         String description = resultSet.getString("description");
         double cost = resultSet.getDouble("cost");
         int capacity = resultSet.getInt("capacity");
-        int destinationId = resultSet.getInt("destination_id");
-        Destination destination = destinationDAO.getDestinationById(destinationId);
-        return new Activity(name, description, cost, capacity, destination);
+        Destination destination = null;
+        if (destinations != null) {
+            int destinationId = resultSet.getInt("destination_id");
+            destination = destinations.get(destinationId);
+            if (destination == null) {
+                destination = new Destination(destinationId, resultSet.getString("destination_name"));
+                destinations.put(destinationId, destination);
+            }
+        }
+        Activity activity = new Activity(name, description, cost, capacity, destination);
+        activity.setId(id);
+        return activity;
     }
 }
@@ -0,0 +1,161 @@
+package travelagency.nymble.dao;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Data Access Object (DAO) class for persisting sign-ups and the balance and capacity changes they cause.
+ * <p>
+ * Besides writing bookings already accepted in memory, it can book directly against the database with
+ * {@link #book(int, int, double)}, for deployments where several nodes share one catalog and only the
+ * database can arbitrate between them.
+ */
+@Repository
+@Timed(value = "nymble.dao", description = "Time spent in DAO calls")
+public class BookingDAO {
+    private static final String DEBIT_BALANCE = "UPDATE passenger SET balance = balance - ? WHERE id = ?";
+    private static final String TAKE_SEATS = "UPDATE activity SET capacity = capacity - ? WHERE id = ?";
+    private static final String INSERT_SIGN_UP = "INSERT INTO passenger_activity (passenger_number, activity_id) VALUES (?, ?)";
+
+    private JdbcTemplate jdbcTemplate;
+    private ActivityDAO activityDAO;
+    private PassengerDAO passengerDAO;
+    private TransactionTemplate transactionTemplate;
+    private int maxAttempts;
+
+    /**
+     * Constructor for BookingDAO.
+     *
+     * @param jdbcTemplate       The JdbcTemplate instance to use for database operations.
+     * @param activityDAO        DAO taking seats on activities.
+     * @param passengerDAO       DAO debiting passengers.
+     * @param transactionManager The transaction manager running each booking.
+     * @param maxAttempts        The number of times a booking is tried when it loses a lock conflict.
+     */
+    @Autowired
+    public BookingDAO(
+            JdbcTemplate jdbcTemplate,
+            ActivityDAO activityDAO,
+            PassengerDAO passengerDAO,
+            PlatformTransactionManager transactionManager,
+            @Value("${nymble.bookings.max-attempts:3}") int maxAttempts
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.activityDAO = activityDAO;
+        this.passengerDAO = passengerDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+    }
+
+    /**
+     * Books a seat on an activity for a passenger directly in the database, in one short transaction:
+     * a conditional update takes the seat, a conditional update debits the passenger and the sign-up is
+     * recorded. Neither update reads the row first, so the database alone decides between bookings
+     * racing from any number of nodes. A transaction that loses a deadlock or lock wait is retried
+     * with a short random back-off, up to the configured number of attempts.
+     * <p>
+     * The passenger is debited by row ID, so a passenger number shared by several rows is refused
+     * instead of debiting each of them.
+     *
+     * @param passengerNumber The passenger number.
+     * @param activityId      The ID of the activity.
+     * @param price           The amount to debit from the passenger.
+     * @return The outcome of the booking; nothing is changed unless it is {@link BookingOutcome#BOOKED}.
+     * @throws ConcurrencyFailureException            if the booking still conflicts after the last attempt.
+     * @throws IncorrectResultSizeDataAccessException if several passenger rows have the passenger number.
+     */
+    public BookingOutcome book(int passengerNumber, int activityId, double price) {
+        Integer passengerId = passengerDAO.findIdByPassengerNumber(passengerNumber);
+        if (passengerId == null) {
+            return BookingOutcome.PASSENGER_NOT_FOUND;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                BookingOutcome outcome = transactionTemplate.execute(status -> {
+                    if (!activityDAO.reserveSeat(activityId)) {
+                        return BookingOutcome.SOLD_OUT;
+                    }
+                    if (!passengerDAO.debitIfSufficient(passengerId, price)) {
+                        status.setRollbackOnly();
+                        return BookingOutcome.INSUFFICIENT_BALANCE;
+                    }
+                    jdbcTemplate.update(INSERT_SIGN_UP, passengerNumber, activityId);
+                    return BookingOutcome.BOOKED;
+                });
+                if (outcome == BookingOutcome.BOOKED) {
+                    activityDAO.evict(activityId);
+                    passengerDAO.evict(passengerId);
+                }
+                return outcome;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Applies a batch of bookings in one transaction, sending each kind of statement as a single JDBC batch.
+     * Changes are expressed as deltas, so batches may be applied in any order.
+     *
+     * @param debitsByPassengerId The total amount to debit from each passenger, keyed by passenger row ID.
+     * @param seatsByActivityId   The number of seats taken on each activity, keyed by activity ID.
+     * @param signUps             The passenger number and activity ID of each sign-up.
+     */
+    @Transactional
+    public void saveBookings(Map<Integer, Double> debitsByPassengerId, Map<Integer, Integer> seatsByActivityId,
+                             List<int[]> signUps) {
+        List<Object[]> debits = new ArrayList<>(debitsByPassengerId.size());
+        debitsByPassengerId.forEach((passengerId, amount) -> debits.add(new Object[]{amount, passengerId}));
+        List<Object[]> seats = new ArrayList<>(seatsByActivityId.size());
+        seatsByActivityId.forEach((activityId, taken) -> seats.add(new Object[]{taken, activityId}));
+        List<Object[]> links = new ArrayList<>(signUps.size());
+        for (int[] signUp : signUps) {
+            links.add(new Object[]{signUp[0], signUp[1]});
+        }
+
+        if (!debits.isEmpty()) {
+            jdbcTemplate.batchUpdate(DEBIT_BALANCE, debits);
+        }
+        if (!seats.isEmpty()) {
+            jdbcTemplate.batchUpdate(TAKE_SEATS, seats);
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SIGN_UP, links);
+        }
+    }
+
+    private static void backOff(int attempt, ConcurrencyFailureException failure) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    /**
+     * Outcome of a booking made with {@link #book(int, int, double)}.
+     */
+    public enum BookingOutcome {
+        BOOKED,
+        SOLD_OUT,
+        INSUFFICIENT_BALANCE,
+        PASSENGER_NOT_FOUND
+    }
+}
@@ -0,0 +1,58 @@
+package travelagency.nymble.dao;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Helpers shared by the DAO classes.
+ */
+final class DAOUtil {
+    /**
+     * Largest number of IDs bound into a single IN clause.
+     */
+    static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    /**
+     * Rows fetched per round trip by streaming queries on drivers other than MySQL.
+     */
+    static final int STREAMING_FETCH_SIZE = 1000;
+
+    private DAOUtil() {
+    }
+
+    /**
+     * Splits IDs into distinct chunks small enough for a single IN clause.
+     *
+     * @param ids The IDs to split.
+     * @return The chunks, each holding at most {@link #MAX_IN_CLAUSE_SIZE} distinct IDs.
+     */
+    static List<List<Integer>> chunks(Collection<Integer> ids) {
+        List<Integer> distinct = ids.stream().distinct().toList();
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MAX_IN_CLAUSE_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Creates a forward-only, read-only statement that streams its rows instead of buffering the whole
+     * result set. MySQL Connector/J only streams when the fetch size is {@link Integer#MIN_VALUE}.
+     *
+     * @param query The query to run.
+     * @return The statement creator.
+     */
+    static PreparedStatementCreator streamingStatement(String query) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : STREAMING_FETCH_SIZE);
+            return statement;
+        };
+    }
+}
@@ -1,19 +1,35 @@
 package travelagency.nymble.dao;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import travelagency.nymble.model.Destination;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Data Access Object (DAO) class for accessing destination-related data from the database.
  */
 @Repository
+@Timed(value = "nymble.dao", description = "Time spent in DAO calls")
 public class DestinationDAO {
+    /**
+     * Name of the cache holding destination rows read by ID.
+     */
+    public static final String CACHE_NAME = "destinations";
+
     private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     /**
      * Constructor for DestinationDAO.
@@ -23,6 +39,7 @@ public class DestinationDAO {
     @Autowired
     public DestinationDAO(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
     /**
@@ -31,11 +48,68 @@ public class DestinationDAO {
      * @param id The ID of the destination.
      * @return The Destination object corresponding to the given ID, or null if not found.
      */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#id")
     public Destination getDestinationById(int id) {
         String query = "SELECT * FROM destination WHERE id = ?";
         return jdbcTemplate.queryForObject(query, (resultSet, rowNum) -> mapDestination(resultSet), id);
     }
 
+    /**
+     * Drops a destination from the read cache so the next lookup goes to the database. Call this after
+     * the row has been changed.
+     *
+     * @param id The ID of the destination.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#id")
+    public void evict(int id) {
+    }
+
+    /**
+     * Drops every cached destination.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    public void evictAll() {
+    }
+
+    /**
+     * Retrieves all destinations from the database in a single query.
+     *
+     * @return The list of destinations, ordered by ID.
+     */
+    public List<Destination> findAll() {
+        String query = "SELECT * FROM destination ORDER BY id";
+        return jdbcTemplate.query(query, (resultSet, rowNum) -> mapDestination(resultSet));
+    }
+
+    /**
+     * Retrieves the destinations with the given IDs using multi-row IN queries.
+     *
+     * @param ids The IDs of the destinations.
+     * @return The found destinations keyed by ID. Missing IDs are left out.
+     */
+    public Map<Integer, Destination> findByIds(Collection<Integer> ids) {
+        String query = "SELECT * FROM destination WHERE id IN (:ids) ORDER BY id";
+        Map<Integer, Destination> destinations = new LinkedHashMap<>();
+        for (List<Integer> chunk : DAOUtil.chunks(ids)) {
+            namedParameterJdbcTemplate.query(query, Map.of("ids", chunk), (resultSet, rowNum) -> mapDestination(resultSet))
+                    .forEach(destination -> destinations.put(destination.getId(), destination));
+        }
+        return destinations;
+    }
+
+    /**
+     * Streams every destination row to a consumer without buffering the whole table.
+     *
+     * @param consumer Receives each destination with the ID of the travel package it belongs to.
+     */
+    public void streamAll(ObjIntConsumer<Destination> consumer) {
+        String query = "SELECT * FROM destination";
+        jdbcTemplate.query(DAOUtil.streamingStatement(query),
+                resultSet -> {
+                    consumer.accept(mapDestination(resultSet), resultSet.getInt("travel_package_id"));
+                });
+    }
+
     private Destination mapDestination(ResultSet resultSet) throws SQLException {
         int id = resultSet.getInt("id");
         String name = resultSet.getString("name");
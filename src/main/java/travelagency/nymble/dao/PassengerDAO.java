@@ -1,19 +1,39 @@
 package travelagency.nymble.dao;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import travelagency.nymble.model.Passenger;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Data Access Object (DAO) class for accessing passenger-related data from the database.
  */
 @Repository
+@Timed(value = "nymble.dao", description = "Time spent in DAO calls")
 public class PassengerDAO {
+    /**
+     * Name of the cache holding passenger rows read by ID.
+     */
+    public static final String CACHE_NAME = "passengers";
+
     private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     /**
      * Constructor for PassengerDAO.
@@ -23,6 +43,7 @@ public class PassengerDAO {
     @Autowired
     public PassengerDAO(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
     /**
@@ -31,11 +52,114 @@ public class PassengerDAO {
      * @param id The ID of the passenger.
      * @return The Passenger object corresponding to the given ID, or null if not found.
      */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#id")
     public Passenger getPassengerById(int id) {
         String query = "SELECT * FROM passenger WHERE id = ?";
         return jdbcTemplate.queryForObject(query, (resultSet, rowNum) -> mapPassenger(resultSet), id);
     }
 
+    /**
+     * Drops a passenger from the read cache so the next lookup goes to the database. Call this after
+     * the row has been changed.
+     *
+     * @param id The ID of the passenger.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#id")
+    public void evict(int id) {
+    }
+
+    /**
+     * Debits a passenger if their balance covers the amount, in a single conditional statement so that
+     * concurrent bookings from any number of nodes can never overdraw the balance.
+     *
+     * @param id     The ID of the passenger row.
+     * @param amount The amount to debit.
+     * @return true if the passenger was debited, false if the balance is too low or the passenger does not exist.
+     */
+    public boolean debitIfSufficient(int id, double amount) {
+        String query = "UPDATE passenger SET balance = balance - ? WHERE id = ? AND balance >= ?";
+        return jdbcTemplate.update(query, amount, id, amount) == 1;
+    }
+
+    /**
+     * Retrieves the row ID of the passenger with the given passenger number.
+     *
+     * @param passengerNumber The passenger number.
+     * @return The ID of the passenger row, or null if there is none.
+     * @throws IncorrectResultSizeDataAccessException if several rows share the passenger number.
+     */
+    public Integer findIdByPassengerNumber(int passengerNumber) {
+        String query = "SELECT id FROM passenger WHERE passenger_number = ?";
+        return DataAccessUtils.singleResult(jdbcTemplate.queryForList(query, Integer.class, passengerNumber));
+    }
+
+    /**
+     * Drops every cached passenger.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    public void evictAll() {
+    }
+
+    /**
+     * Retrieves all passengers from the database in a single query.
+     *
+     * @return The list of passengers, ordered by ID.
+     */
+    public List<Passenger> findAll() {
+        String query = "SELECT * FROM passenger ORDER BY id";
+        return jdbcTemplate.query(query, (resultSet, rowNum) -> mapPassenger(resultSet));
+    }
+
+    /**
+     * Retrieves the passengers with the given IDs using multi-row IN queries.
+     *
+     * @param ids The IDs of the passengers.
+     * @return The found passengers keyed by ID. Missing IDs are left out.
+     */
+    public Map<Integer, Passenger> findByIds(Collection<Integer> ids) {
+        String query = "SELECT * FROM passenger WHERE id IN (:ids) ORDER BY id";
+        Map<Integer, Passenger> passengers = new LinkedHashMap<>();
+        for (List<Integer> chunk : DAOUtil.chunks(ids)) {
+            namedParameterJdbcTemplate.query(query, Map.of("ids", chunk),
+                    resultSet -> {
+                        passengers.put(resultSet.getInt("id"), mapPassenger(resultSet));
+                    });
+        }
+        return passengers;
+    }
+
+    /**
+     * Retrieves the row IDs of the passengers with the given passenger numbers using multi-row IN queries.
+     *
+     * @param passengerNumbers The passenger numbers to look up.
+     * @return The IDs of the matching rows keyed by passenger number, in ID order. Unknown passenger
+     * numbers are left out; a number shared by several rows maps to all of them.
+     */
+    public Map<Integer, List<Integer>> findIdsByPassengerNumbers(Collection<Integer> passengerNumbers) {
+        String query = "SELECT id, passenger_number FROM passenger WHERE passenger_number IN (:passengerNumbers) ORDER BY id";
+        Map<Integer, List<Integer>> ids = new HashMap<>();
+        for (List<Integer> chunk : DAOUtil.chunks(passengerNumbers)) {
+            namedParameterJdbcTemplate.query(query, Map.of("passengerNumbers", chunk),
+                    resultSet -> {
+                        ids.computeIfAbsent(resultSet.getInt("passenger_number"), key -> new ArrayList<>(1)).add(resultSet.getInt("id"));
+                    });
+        }
+        return ids;
+    }
+
+    /**
+     * Streams every passenger row to a consumer without buffering the whole table.
+     *
+     * @param consumer Receives each passenger with the ID of the travel package they are enrolled in.
+     */
+    public void streamAll(ObjIntConsumer<Passenger> consumer) {
+        String query = "SELECT * FROM passenger";
+        jdbcTemplate.query(DAOUtil.streamingStatement(query),
+                resultSet -> {
+                    consumer.accept(mapPassenger(resultSet), resultSet.getInt("travel_package_id"));
+                });
+    }
+
     private Passenger mapPassenger(ResultSet resultSet) throws SQLException {
         String name = resultSet.getString("name");
         int passengerNumber = resultSet.getInt("passenger_number");
@@ -1,19 +1,35 @@
 package travelagency.nymble.dao;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import travelagency.nymble.model.TravelPackage;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object (DAO) class for accessing travel package-related data from the database.
  */
 @Repository
+@Timed(value = "nymble.dao", description = "Time spent in DAO calls")
 public class TravelPackageDAO {
+    /**
+     * Name of the cache holding travel package rows read by ID.
+     */
+    public static final String CACHE_NAME = "travelPackages";
+
     private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     /**
      * Constructor for TravelPackageDAO.
@@ -23,6 +39,7 @@ public class TravelPackageDAO {
     @Autowired
     public TravelPackageDAO(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
     /**
@@ -31,11 +48,68 @@ public class TravelPackageDAO {
      * @param id The ID of the travel package.
      * @return The TravelPackage object corresponding to the given ID, or null if not found.
      */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#id")
     public TravelPackage getTravelPackageById(int id) {
         String query = "SELECT * FROM travel_package WHERE id = ?";
         return jdbcTemplate.queryForObject(query, (resultSet, rowNum) -> mapTravelPackage(resultSet), id);
     }
 
+    /**
+     * Drops a travel package from the read cache so the next lookup goes to the database. Call this after
+     * the row has been changed.
+     *
+     * @param id The ID of the travel package.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#id")
+    public void evict(int id) {
+    }
+
+    /**
+     * Drops every cached travel package.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    public void evictAll() {
+    }
+
+    /**
+     * Retrieves all travel packages from the database in a single query.
+     *
+     * @return The list of travel packages, ordered by ID.
+     */
+    public List<TravelPackage> findAll() {
+        String query = "SELECT * FROM travel_package ORDER BY id";
+        return jdbcTemplate.query(query, (resultSet, rowNum) -> mapTravelPackage(resultSet));
+    }
+
+    /**
+     * Retrieves the travel packages with the given IDs using multi-row IN queries.
+     *
+     * @param ids The IDs of the travel packages.
+     * @return The found travel packages keyed by ID. Missing IDs are left out.
+     */
+    public Map<Integer, TravelPackage> findByIds(Collection<Integer> ids) {
+        String query = "SELECT * FROM travel_package WHERE id IN (:ids) ORDER BY id";
+        Map<Integer, TravelPackage> travelPackages = new LinkedHashMap<>();
+        for (List<Integer> chunk : DAOUtil.chunks(ids)) {
+            namedParameterJdbcTemplate.query(query, Map.of("ids", chunk), (resultSet, rowNum) -> mapTravelPackage(resultSet))
+                    .forEach(travelPackage -> travelPackages.put(travelPackage.getId(), travelPackage));
+        }
+        return travelPackages;
+    }
+
+    /**
+     * Streams every travel package row to a consumer without buffering the whole table.
+     *
+     * @param consumer Receives each travel package.
+     */
+    public void streamAll(Consumer<TravelPackage> consumer) {
+        String query = "SELECT * FROM travel_package";
+        jdbcTemplate.query(DAOUtil.streamingStatement(query),
+                resultSet -> {
+                    consumer.accept(mapTravelPackage(resultSet));
+                });
+    }
+
     private TravelPackage mapTravelPackage(ResultSet resultSet) throws SQLException {
         int id = resultSet.getInt("id");
         String name = resultSet.getString("name");
@@ -0,0 +1,26 @@
+package travelagency.nymble.dto;
+
+import travelagency.nymble.model.Activity;
+
+/**
+ * Activity as returned by the API.
+ *
+ * @param name            The name of the activity.
+ * @param description     The description of the activity.
+ * @param cost            The cost of the activity.
+ * @param capacity        The number of seats left on the activity.
+ * @param destinationName The name of the destination of the activity.
+ */
+public record ActivityResponse(String name, String description, double cost, int capacity, String destinationName) {
+
+    /**
+     * Creates the response for an activity.
+     *
+     * @param activity The activity.
+     * @return The response.
+     */
+    public static ActivityResponse from(Activity activity) {
+        String destinationName = activity.getDestination() != null ? activity.getDestination().getName() : null;
+        return new ActivityResponse(activity.getName(), activity.getDescription(), activity.getCost(), activity.getCapacity(), destinationName);
+    }
+}
@@ -0,0 +1,24 @@
+package travelagency.nymble.dto;
+
+import java.util.List;
+
+/**
+ * Page of the available activities a passenger can afford, cheapest first.
+ * <p>
+ * When more activities may follow, {@code nextAfterCost} and {@code nextAfterId} hold the keyset
+ * cursor to pass back for the next page; both are null on the last page.
+ *
+ * @param passengerNumber The passenger number.
+ * @param balance         The balance of the passenger the page was computed for.
+ * @param activities      The affordable activities on this page.
+ * @param nextAfterCost   The cost part of the cursor for the next page, or null.
+ * @param nextAfterId     The id part of the cursor for the next page, or null.
+ */
+public record AffordableActivitiesResponse(
+        int passengerNumber,
+        double balance,
+        List<AffordableActivity> activities,
+        Double nextAfterCost,
+        Long nextAfterId
+) {
+}
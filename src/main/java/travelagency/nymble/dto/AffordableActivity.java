@@ -0,0 +1,10 @@
+package travelagency.nymble.dto;
+
+/**
+ * Activity a passenger can afford, with the price they would pay for it.
+ *
+ * @param activity The activity.
+ * @param price    The price for the passenger after their discount.
+ */
+public record AffordableActivity(ActivityResponse activity, double price) {
+}
@@ -0,0 +1,23 @@
+package travelagency.nymble.dto;
+
+/**
+ * Hit and miss statistics of one read cache.
+ *
+ * @param name      The name of the cache.
+ * @param size      The approximate number of cached entries.
+ * @param hits      The number of lookups served from the cache.
+ * @param misses    The number of lookups that went to the database.
+ * @param hitRatio  The fraction of lookups served from the cache, or 1.0 if there were none.
+ * @param missRatio The fraction of lookups that went to the database, or 0.0 if there were none.
+ * @param evictions The number of entries evicted by size or expiry.
+ */
+public record CacheStatistics(
+        String name,
+        long size,
+        long hits,
+        long misses,
+        double hitRatio,
+        double missRatio,
+        long evictions
+) {
+}
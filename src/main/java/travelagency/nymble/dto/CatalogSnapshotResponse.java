@@ -0,0 +1,23 @@
+package travelagency.nymble.dto;
+
+/**
+ * Summary of a catalog snapshot that was written.
+ *
+ * @param path           The snapshot file.
+ * @param sizeBytes      The size of the file in bytes.
+ * @param travelPackages The number of travel packages written.
+ * @param destinations   The number of destinations written.
+ * @param activities     The number of activities written.
+ * @param passengers     The number of passengers written.
+ * @param elapsedMillis  The time taken to capture and write the snapshot, in milliseconds.
+ */
+public record CatalogSnapshotResponse(
+        String path,
+        long sizeBytes,
+        int travelPackages,
+        int destinations,
+        int activities,
+        int passengers,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,33 @@
+package travelagency.nymble.dto;
+
+/**
+ * Snapshot of the database connection pool for sizing it under load.
+ *
+ * @param poolName           The name of the pool, or null if the pool has not started yet.
+ * @param activeConnections  The connections currently lent out.
+ * @param idleConnections    The connections waiting in the pool.
+ * @param waitingThreads     The threads blocked waiting for a connection.
+ * @param totalConnections   The connections currently open.
+ * @param maxConnections     The maximum pool size.
+ * @param acquisitions       The number of connections handed out since startup.
+ * @param acquireTimeouts    The number of requests that gave up waiting for a connection.
+ * @param acquireMeanMicros  The mean time to obtain a connection, in microseconds.
+ * @param acquireP99Micros   The upper bound of the 99th percentile acquire time, in microseconds.
+ * @param acquireMaxMicros   The longest time taken to obtain a connection, in microseconds.
+ * @param usageMeanMillis    The mean time a connection was held before being returned, in milliseconds.
+ */
+public record ConnectionPoolStats(
+        String poolName,
+        int activeConnections,
+        int idleConnections,
+        int waitingThreads,
+        int totalConnections,
+        int maxConnections,
+        long acquisitions,
+        long acquireTimeouts,
+        double acquireMeanMicros,
+        long acquireP99Micros,
+        long acquireMaxMicros,
+        double usageMeanMillis
+) {
+}
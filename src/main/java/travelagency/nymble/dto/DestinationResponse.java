@@ -0,0 +1,24 @@
+package travelagency.nymble.dto;
+
+import travelagency.nymble.model.Destination;
+
+import java.util.List;
+
+/**
+ * Destination of a package itinerary as returned by the API.
+ *
+ * @param name       The name of the destination.
+ * @param activities The activities available at the destination.
+ */
+public record DestinationResponse(String name, List<ActivityResponse> activities) {
+
+    /**
+     * Creates the response for a destination.
+     *
+     * @param destination The destination.
+     * @return The response.
+     */
+    public static DestinationResponse from(Destination destination) {
+        return new DestinationResponse(destination.getName(), destination.getActivities().stream().map(ActivityResponse::from).toList());
+    }
+}
@@ -0,0 +1,24 @@
+package travelagency.nymble.dto;
+
+import travelagency.nymble.model.TravelPackage;
+
+import java.util.List;
+
+/**
+ * Itinerary of a travel package as returned by the API.
+ *
+ * @param packageName  The name of the travel package.
+ * @param destinations The destinations of the travel package, in itinerary order.
+ */
+public record ItineraryResponse(String packageName, List<DestinationResponse> destinations) {
+
+    /**
+     * Creates the itinerary response for a travel package.
+     *
+     * @param travelPackage The travel package.
+     * @return The response.
+     */
+    public static ItineraryResponse from(TravelPackage travelPackage) {
+        return new ItineraryResponse(travelPackage.getName(), travelPackage.getDestinations().stream().map(DestinationResponse::from).toList());
+    }
+}
@@ -0,0 +1,33 @@
+package travelagency.nymble.dto;
+
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+
+import java.util.List;
+
+/**
+ * Details of a passenger as returned by the API.
+ *
+ * @param name            The name of the passenger.
+ * @param passengerNumber The passenger number.
+ * @param passengerType   The type of the passenger.
+ * @param balance         The balance of the passenger.
+ * @param activities      The activities the passenger signed up for.
+ * @param travelPackages  The names of the travel packages the passenger is enrolled in.
+ */
+public record PassengerDetailsResponse(String name, int passengerNumber, String passengerType, double balance, List<ActivityResponse> activities,
+                                       List<String> travelPackages) {
+
+    /**
+     * Creates the details response for a passenger.
+     *
+     * @param passenger      The passenger.
+     * @param travelPackages The travel packages the passenger is enrolled in.
+     * @return The response.
+     */
+    public static PassengerDetailsResponse from(Passenger passenger, List<TravelPackage> travelPackages) {
+        return new PassengerDetailsResponse(passenger.getName(), passenger.getPassengerNumber(), passenger.getPassengerType(),
+                passenger.getBalance(), passenger.getActivities().stream().map(ActivityResponse::from).toList(),
+                travelPackages.stream().map(TravelPackage::getName).toList());
+    }
+}
@@ -0,0 +1,27 @@
+package travelagency.nymble.dto;
+
+import travelagency.nymble.model.TravelPackage;
+
+import java.util.List;
+
+/**
+ * Passenger list of a travel package as returned by the API.
+ *
+ * @param packageName        The name of the travel package.
+ * @param passengerCapacity  The passenger capacity of the travel package.
+ * @param passengersEnrolled The number of passengers enrolled.
+ * @param passengers         The passengers enrolled.
+ */
+public record PassengerListResponse(String packageName, int passengerCapacity, int passengersEnrolled, List<PassengerSummary> passengers) {
+
+    /**
+     * Creates the passenger list response for a travel package.
+     *
+     * @param travelPackage The travel package.
+     * @return The response.
+     */
+    public static PassengerListResponse from(TravelPackage travelPackage) {
+        List<PassengerSummary> passengers = travelPackage.getPassengers().stream().map(PassengerSummary::from).toList();
+        return new PassengerListResponse(travelPackage.getName(), travelPackage.getPassengerCapacity(), passengers.size(), passengers);
+    }
+}
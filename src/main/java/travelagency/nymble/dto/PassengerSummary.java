@@ -0,0 +1,22 @@
+package travelagency.nymble.dto;
+
+import travelagency.nymble.model.Passenger;
+
+/**
+ * Entry of a package passenger list as returned by the API.
+ *
+ * @param name            The name of the passenger.
+ * @param passengerNumber The passenger number.
+ */
+public record PassengerSummary(String name, int passengerNumber) {
+
+    /**
+     * Creates the summary of a passenger.
+     *
+     * @param passenger The passenger.
+     * @return The summary.
+     */
+    public static PassengerSummary from(Passenger passenger) {
+        return new PassengerSummary(passenger.getName(), passenger.getPassengerNumber());
+    }
+}
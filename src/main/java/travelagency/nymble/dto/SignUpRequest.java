@@ -0,0 +1,11 @@
+package travelagency.nymble.dto;
+
+/**
+ * One entry of a bulk sign-up request.
+ *
+ * @param passengerNumber The passenger number.
+ * @param activityName    The name of the activity.
+ * @param destinationName The name of the destination.
+ */
+public record SignUpRequest(int passengerNumber, String activityName, String destinationName) {
+}
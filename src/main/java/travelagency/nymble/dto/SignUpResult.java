@@ -0,0 +1,32 @@
+package travelagency.nymble.dto;
+
+import travelagency.nymble.service.SignUpStatus;
+
+/**
+ * Outcome of one entry of a bulk sign-up request.
+ *
+ * @param passengerNumber The passenger number.
+ * @param activityName    The name of the activity.
+ * @param destinationName The name of the destination.
+ * @param status          The outcome of the sign-up.
+ * @param message         A human-readable description of the outcome.
+ */
+public record SignUpResult(
+        int passengerNumber,
+        String activityName,
+        String destinationName,
+        SignUpStatus status,
+        String message
+) {
+    /**
+     * Creates the result for a request.
+     *
+     * @param request The request the result belongs to.
+     * @param status  The outcome of the sign-up.
+     * @param message A human-readable description of the outcome.
+     * @return The result.
+     */
+    public static SignUpResult of(SignUpRequest request, SignUpStatus status, String message) {
+        return new SignUpResult(request.passengerNumber(), request.activityName(), request.destinationName(), status, message);
+    }
+}
@@ -0,0 +1,11 @@
+package travelagency.nymble.dto;
+
+/**
+ * State of an asynchronous sign-up.
+ *
+ * @param ticketId  The ticket identifying the sign-up.
+ * @param completed Whether the sign-up has been processed.
+ * @param result    The outcome of the sign-up, or null while it is still queued or running.
+ */
+public record SignUpTicketResponse(String ticketId, boolean completed, SignUpResult result) {
+}
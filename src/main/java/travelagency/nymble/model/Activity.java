@@ -7,10 +7,11 @@ import java.util.List;
  * Represents an activity within a travel package.
  */
 public class Activity {
+    private int id;
     private String name;
     private String description;
-    private double cost;
-    private int capacity;
+    private long cost;
+    private volatile SeatInventory seats;
     private Destination destination;
     private List<Passenger> signedUpPassengers;
 
@@ -26,12 +27,30 @@ public class Activity {
     public Activity(String name, String description, double cost, int capacity, Destination destination) {
         this.name = name;
         this.description = description;
-        this.cost = cost;
-        this.capacity = capacity;
+        this.cost = Money.toMinorUnits(cost);
+        this.seats = new SeatInventory(capacity);
         this.destination = destination;
         this.signedUpPassengers = new ArrayList<>();
     }
 
+    /**
+     * Gets the ID of the activity.
+     *
+     * @return The ID of the activity, or 0 if it was not loaded from the database.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the activity.
+     *
+     * @param id The ID to set.
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Gets the name of the activity.
      *
@@ -56,6 +75,15 @@ public class Activity {
      * @return The cost of the activity.
      */
     public double getCost() {
+        return Money.toMajorUnits(cost);
+    }
+
+    /**
+     * Gets the cost of the activity in minor units.
+     *
+     * @return The cost of the activity in minor units.
+     */
+    public long getCostMinorUnits() {
         return cost;
     }
 
@@ -65,7 +93,7 @@ public class Activity {
      * @return The capacity of the activity.
      */
     public int getCapacity() {
-        return capacity;
+        return seats.remaining();
     }
 
     /**
@@ -95,13 +123,22 @@ public class Activity {
         signedUpPassengers.add(passenger);
     }
 
+    /**
+     * Removes a passenger from the list of signed up passengers for the activity.
+     *
+     * @param passenger The passenger to remove.
+     */
+    public void removePassenger(Passenger passenger) {
+        signedUpPassengers.remove(passenger);
+    }
+
     /**
      * Sets the capacity of the activity.
      *
      * @param capacity The capacity to set.
      */
     public void setCapacity(int capacity) {
-        this.capacity = capacity;
+        seats.reset(capacity);
     }
 
     /**
@@ -110,16 +147,44 @@ public class Activity {
      * @return true if there is availability, false otherwise.
      */
     public boolean hasAvailability() {
-        return capacity > 0;
+        return seats.remaining() > 0;
     }
 
     /**
-     * Books availability for the activity by reducing the capacity if available.
+     * Books availability for the activity by atomically reducing the capacity if available.
+     *
+     * @return true if a seat was booked, false if the activity is at full capacity.
+     */
+    public boolean bookAvailability() {
+        return seats.tryReserve();
+    }
+
+    /**
+     * Releases a seat previously booked with {@link #bookAvailability()}.
+     */
+    public void releaseAvailability() {
+        seats.release();
+    }
+
+    /**
+     * Gets the seat inventory backing the capacity of the activity.
+     *
+     * @return The seat inventory.
+     */
+    public SeatInventory getSeatInventory() {
+        return seats;
+    }
+
+    /**
+     * Replaces the seat inventory backing the capacity of the activity, keeping its availability
+     * callback. Meant to be called before the activity is shared, as seats held by the previous
+     * inventory are not carried over.
+     *
+     * @param seatInventory The seat inventory to use.
      */
-    public void bookAvailability() {
-        if (hasAvailability()) {
-            capacity--;
-        }
+    public void setSeatInventory(SeatInventory seatInventory) {
+        seatInventory.setAvailabilityCallback(seats.getAvailabilityCallback());
+        this.seats = seatInventory;
     }
 
     /**
@@ -137,8 +202,8 @@ public class Activity {
     public void printDetails() {
         System.out.println("Activity: " + name);
         System.out.println("Description: " + description);
-        System.out.println("Cost: " + cost);
-        System.out.println("Capacity: " + capacity);
+        System.out.println("Cost: " + getCost());
+        System.out.println("Capacity: " + getCapacity());
         System.out.println("Destination: " + destination.getName());
     }
 }
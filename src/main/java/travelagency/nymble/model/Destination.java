@@ -1,7 +1,7 @@
 package travelagency.nymble.model;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a travel destination.
@@ -20,7 +20,7 @@ public class Destination {
     public Destination(int id, String name) {
         this.id = id;
         this.name = name;
-        this.activities = new ArrayList<>();
+        this.activities = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -0,0 +1,35 @@
+package travelagency.nymble.model;
+
+/**
+ * Conversions between amounts in major units (such as 12.34), as exposed by the API and the database,
+ * and the whole number of minor units (such as 1234 cents) used for all balance and price arithmetic.
+ */
+public final class Money {
+    /**
+     * Number of minor units in one major unit.
+     */
+    public static final long MINOR_UNITS_PER_MAJOR_UNIT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount in major units to minor units, rounding to the nearest minor unit.
+     *
+     * @param amount The amount in major units.
+     * @return The amount in minor units.
+     */
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * MINOR_UNITS_PER_MAJOR_UNIT);
+    }
+
+    /**
+     * Converts an amount in minor units to major units.
+     *
+     * @param minorUnits The amount in minor units.
+     * @return The amount in major units.
+     */
+    public static double toMajorUnits(long minorUnits) {
+        return (double) minorUnits / MINOR_UNITS_PER_MAJOR_UNIT;
+    }
+}
@@ -5,12 +5,16 @@ import java.util.List;
 
 /**
  * Represents a passenger in the travel agency system.
+ * <p>
+ * Subclasses may keep the passenger's state elsewhere, such as in a columnar store, by overriding the
+ * accessors and mutators; every other method goes through them.
  */
 public class Passenger {
     private String name;
     private int passengerNumber;
     private String passengerType;
-    private double balance;
+    private PassengerTier tier;
+    private long balance;
     private List<Activity> activities;
 
     /**
@@ -24,11 +28,19 @@ public class Passenger {
     public Passenger(String name, int passengerNumber, double balance, String passengerType) {
         this.name = name;
         this.passengerNumber = passengerNumber;
-        this.balance = balance;
+        this.balance = Money.toMinorUnits(balance);
         this.passengerType = passengerType;
+        this.tier = PassengerTier.fromPassengerType(passengerType);
         this.activities = new ArrayList<>();
     }
 
+    /**
+     * Constructs a Passenger object without state of its own, for subclasses that override every
+     * accessor and mutator.
+     */
+    protected Passenger() {
+    }
+
     /**
      * Gets the name of the passenger.
      *
@@ -56,17 +68,38 @@ public class Passenger {
         return passengerType;
     }
 
+    /**
+     * Gets the pricing tier of the passenger.
+     *
+     * @return The tier, or null if the passenger type is unknown.
+     */
+    public PassengerTier getTier() {
+        return tier;
+    }
+
     /**
      * Gets the balance of the passenger.
      *
      * @return The balance of the passenger.
      */
     public double getBalance() {
+        return Money.toMajorUnits(getBalanceMinorUnits());
+    }
+
+    /**
+     * Gets the balance of the passenger in minor units.
+     *
+     * @return The balance of the passenger in minor units.
+     */
+    public long getBalanceMinorUnits() {
         return balance;
     }
 
     /**
      * Gets the list of activities signed up by the passenger.
+     * <p>
+     * The list is not thread-safe; callers that may run alongside sign-ups must hold the passenger's
+     * sign-up lock while reading it.
      *
      * @return The list of activities.
      */
@@ -74,6 +107,85 @@ public class Passenger {
         return activities;
     }
 
+    /**
+     * Calculates the amount the passenger is charged for an activity under the
+     * {@link PricingEngine#DEFAULT default pricing}: the full cost for standard passengers, a 10%
+     * discount for gold passengers and nothing for premium passengers.
+     *
+     * @param activity The activity to price.
+     * @return The amount to charge.
+     * @throws IllegalStateException if the passenger type is unknown.
+     */
+    public double priceFor(Activity activity) {
+        return Money.toMajorUnits(PricingEngine.DEFAULT.quote(this, activity));
+    }
+
+    /**
+     * Calculates the highest activity cost the passenger can currently afford under the
+     * {@link PricingEngine#DEFAULT default pricing}, given their balance and the discount of their tier.
+     *
+     * @return The highest affordable cost, or positive infinity for premium passengers.
+     * @throws IllegalStateException if the passenger type is unknown.
+     */
+    public double maxAffordableCost() {
+        long maxCost = PricingEngine.DEFAULT.maxAffordableCost(this);
+        return maxCost == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : Money.toMajorUnits(maxCost);
+    }
+
+    /**
+     * Deducts an amount from the balance of the passenger.
+     *
+     * @param amount The amount to deduct.
+     */
+    public void debit(double amount) {
+        debitMinorUnits(Money.toMinorUnits(amount));
+    }
+
+    /**
+     * Deducts an amount in minor units from the balance of the passenger.
+     *
+     * @param amount The amount to deduct, in minor units.
+     */
+    public void debitMinorUnits(long amount) {
+        balance -= amount;
+    }
+
+    /**
+     * Adds an amount back to the balance of the passenger.
+     *
+     * @param amount The amount to add.
+     */
+    public void credit(double amount) {
+        creditMinorUnits(Money.toMinorUnits(amount));
+    }
+
+    /**
+     * Adds an amount in minor units back to the balance of the passenger.
+     *
+     * @param amount The amount to add, in minor units.
+     */
+    public void creditMinorUnits(long amount) {
+        balance += amount;
+    }
+
+    /**
+     * Adds an activity to the list of activities signed up by the passenger.
+     *
+     * @param activity The activity to add.
+     */
+    public void addActivity(Activity activity) {
+        activities.add(activity);
+    }
+
+    /**
+     * Removes an activity from the list of activities signed up by the passenger.
+     *
+     * @param activity The activity to remove.
+     */
+    public void removeActivity(Activity activity) {
+        activities.remove(activity);
+    }
+
     /**
      * Signs up the passenger for an activity.
      *
@@ -81,42 +193,24 @@ public class Passenger {
      * @return true if the sign-up is successful, false otherwise.
      */
     public boolean signUpForActivity(Activity activity) {
-        if (!activity.hasAvailability()) {
-            System.out.println("Sorry, the activity is already at full capacity.");
+        if (getTier() == null) {
             return false;
         }
 
-        if (passengerType.equals("STANDARD")) {
-            if (balance >= activity.getCost()) {
-                balance -= activity.getCost();
-                activity.setCapacity(activity.getCapacity() - 1);
-                activities.add(activity);
-                System.out.println(name + " signed up for " + activity.getName() + " at " + activity.getDestination().getName() + ".");
-                return true;
-            } else {
-                System.out.println(name + " does not have sufficient balance to sign up for " + activity.getName() + ".");
-                return false;
-            }
-        } else if (passengerType.equals("GOLD")) {
-            double discountedCost = activity.getCost() * 0.9;
-            if (balance >= discountedCost) {
-                balance -= discountedCost;
-                activity.setCapacity(activity.getCapacity() - 1);
-                activities.add(activity);
-                System.out.println(name + " signed up for " + activity.getName() + " at " + activity.getDestination().getName() + " with a 10% discount.");
-                return true;
-            } else {
-                System.out.println(name + " does not have sufficient balance to sign up for " + activity.getName() + ".");
-                return false;
-            }
-        } else if (passengerType.equals("PREMIUM")) {
-            activity.setCapacity(activity.getCapacity() - 1);
-            activities.add(activity);
-            System.out.println(name + " signed up for " + activity.getName() + " at " + activity.getDestination().getName() + " for free.");
-            return true;
+        // Take the seat first so that concurrent sign-ups can never oversell the activity.
+        if (!activity.bookAvailability()) {
+            return false;
+        }
+
+        long price = PricingEngine.DEFAULT.quote(this, activity);
+        if (getBalanceMinorUnits() < price) {
+            activity.releaseAvailability();
+            return false;
         }
 
-        return false;
+        debitMinorUnits(price);
+        addActivity(activity);
+        return true;
     }
 
     /**
@@ -124,14 +218,15 @@ public class Passenger {
      */
     public void printDetails() {
         System.out.println("*********************************Passenger Details*****************************************");
-        System.out.println("Passenger: " + name);
-        System.out.println("Passenger Number: " + passengerNumber);
-        System.out.println("Passenger Type: " + passengerType);
-        System.out.println("Balance: " + balance);
+        System.out.println("Passenger: " + getName());
+        System.out.println("Passenger Number: " + getPassengerNumber());
+        System.out.println("Passenger Type: " + getPassengerType());
+        System.out.println("Balance: " + getBalance());
 
-        if (!activities.isEmpty()) {
+        List<Activity> signedUpActivities = getActivities();
+        if (!signedUpActivities.isEmpty()) {
             System.out.println("Activities signed up:");
-            for (Activity activity : activities) {
+            for (Activity activity : signedUpActivities) {
                 System.out.println("Activity: " + activity.getName());
                 System.out.println("Destination: " + activity.getDestination().getName());
                 System.out.println("Cost: " + activity.getCost());
@@ -0,0 +1,39 @@
+package travelagency.nymble.model;
+
+/**
+ * Pricing tier of a passenger, parsed once from the passenger type.
+ */
+public enum PassengerTier {
+    /**
+     * Pays the full cost of activities by default.
+     */
+    STANDARD,
+
+    /**
+     * Gets a discount on activities, 10% by default.
+     */
+    GOLD,
+
+    /**
+     * Takes part in activities for free by default.
+     */
+    PREMIUM;
+
+    /**
+     * Gets the tier of a passenger type.
+     *
+     * @param passengerType The passenger type, such as "GOLD".
+     * @return The tier, or null if the passenger type is unknown.
+     */
+    public static PassengerTier fromPassengerType(String passengerType) {
+        if (passengerType == null) {
+            return null;
+        }
+        return switch (passengerType) {
+            case "STANDARD" -> STANDARD;
+            case "GOLD" -> GOLD;
+            case "PREMIUM" -> PREMIUM;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package travelagency.nymble.model;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prices activities for passengers in whole minor units.
+ * <p>
+ * Each {@link PassengerTier} has a discount, and destinations can additionally carry a promotion that
+ * is applied on top of it. Discounts are given in basis points (1/100 of a percent) and turned into
+ * multipliers when the engine is built, so a quote is an array lookup, at most one map lookup and
+ * integer arithmetic, without allocating. Every discount is rounded half up to the nearest minor unit.
+ */
+public class PricingEngine {
+    /**
+     * Number of basis points in 100%.
+     */
+    public static final long BASIS_POINTS = 10_000;
+
+    /**
+     * The built-in pricing: full cost for standard passengers, 10% off for gold passengers, free for
+     * premium passengers and no promotions.
+     */
+    public static final PricingEngine DEFAULT = new PricingEngine(
+            Map.of(PassengerTier.GOLD, 1_000L, PassengerTier.PREMIUM, BASIS_POINTS), Map.of());
+
+    private final long[] tierMultipliers = new long[PassengerTier.values().length];
+    private final Map<String, Long> promotionMultipliers = new HashMap<>();
+    private final long lowestPromotionMultiplier;
+
+    /**
+     * Constructs a PricingEngine object.
+     *
+     * @param tierDiscounts         The discount of each tier in basis points; tiers left out pay full cost.
+     * @param destinationPromotions The extra discount on activities at each destination name, in basis points.
+     * @throws IllegalArgumentException if a discount is negative or above 100%.
+     */
+    public PricingEngine(Map<PassengerTier, Long> tierDiscounts, Map<String, Long> destinationPromotions) {
+        Map<PassengerTier, Long> discounts = new EnumMap<>(PassengerTier.class);
+        discounts.putAll(tierDiscounts);
+        for (PassengerTier tier : PassengerTier.values()) {
+            tierMultipliers[tier.ordinal()] = multiplierFor(discounts.getOrDefault(tier, 0L));
+        }
+        long lowest = BASIS_POINTS;
+        for (Map.Entry<String, Long> promotion : destinationPromotions.entrySet()) {
+            long multiplier = multiplierFor(promotion.getValue());
+            promotionMultipliers.put(promotion.getKey(), multiplier);
+            lowest = Math.min(lowest, multiplier);
+        }
+        this.lowestPromotionMultiplier = lowest;
+    }
+
+    /**
+     * Parses a list of destination promotions.
+     *
+     * @param promotions Comma-separated {@code destination:percent} pairs, such as "Paris:15,Rome:2.5".
+     * @return The discount of each destination in basis points.
+     * @throws IllegalArgumentException if an entry is malformed.
+     */
+    public static Map<String, Long> parsePromotions(String promotions) {
+        Map<String, Long> parsed = new HashMap<>();
+        if (promotions == null || promotions.isBlank()) {
+            return parsed;
+        }
+        for (String entry : promotions.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Promotion " + entry.trim() + " is not of the form destination:percent.");
+            }
+            parsed.put(entry.substring(0, separator).trim(), percentToBasisPoints(Double.parseDouble(entry.substring(separator + 1).trim())));
+        }
+        return parsed;
+    }
+
+    /**
+     * Converts a percentage to basis points.
+     *
+     * @param percent The percentage, such as 12.5.
+     * @return The percentage in basis points, such as 1250.
+     */
+    public static long percentToBasisPoints(double percent) {
+        return Math.round(percent * 100);
+    }
+
+    /**
+     * Calculates the amount a passenger is charged for an activity.
+     *
+     * @param passenger The passenger signing up.
+     * @param activity  The activity to price.
+     * @return The price in minor units.
+     * @throws IllegalStateException if the passenger type is unknown.
+     */
+    public long quote(Passenger passenger, Activity activity) {
+        long price = applyMultiplier(activity.getCostMinorUnits(), tierMultiplier(passenger));
+        Destination destination = activity.getDestination();
+        if (destination != null && !promotionMultipliers.isEmpty()) {
+            Long promotion = promotionMultipliers.get(destination.getName());
+            if (promotion != null) {
+                price = applyMultiplier(price, promotion);
+            }
+        }
+        return price;
+    }
+
+    /**
+     * Calculates an upper bound on the cost of the activities a passenger can afford with their
+     * current balance. Activities up to the bound may still be unaffordable and need to be quoted.
+     *
+     * @param passenger The passenger.
+     * @return The highest affordable cost in minor units, or {@link Long#MAX_VALUE} if any cost is.
+     * @throws IllegalStateException if the passenger type is unknown.
+     */
+    public long maxAffordableCost(Passenger passenger) {
+        long multiplier = tierMultiplier(passenger) * lowestPromotionMultiplier;
+        long balance = passenger.getBalanceMinorUnits();
+        if (multiplier == 0 || balance >= Long.MAX_VALUE / (BASIS_POINTS * BASIS_POINTS)) {
+            return Long.MAX_VALUE;
+        }
+        // Each discount may round the price down by half a minor unit, so allow one minor unit of slack.
+        return Math.max(0, (balance + 1) * BASIS_POINTS * BASIS_POINTS / multiplier + 1);
+    }
+
+    private long tierMultiplier(Passenger passenger) {
+        PassengerTier tier = passenger.getTier();
+        if (tier == null) {
+            throw new IllegalStateException("Unknown passenger type " + passenger.getPassengerType() + ".");
+        }
+        return tierMultipliers[tier.ordinal()];
+    }
+
+    private static long applyMultiplier(long amount, long multiplier) {
+        return (amount * multiplier + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    private static long multiplierFor(long discountBasisPoints) {
+        if (discountBasisPoints < 0 || discountBasisPoints > BASIS_POINTS) {
+            throw new IllegalArgumentException("Discount of " + discountBasisPoints + " basis points is outside 0-100%.");
+        }
+        return BASIS_POINTS - discountBasisPoints;
+    }
+}
@@ -0,0 +1,194 @@
+package travelagency.nymble.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free count of the seats left on an activity.
+ * <p>
+ * Seats are taken and handed back with compare-and-set, so concurrent sign-ups can never push the
+ * count below zero. Once an activity is sold out, reservation attempts only read the counter and fail
+ * fast without contending on it.
+ * <p>
+ * An optional callback is run whenever the inventory sells out or gets seats back after being sold
+ * out, so that indexes of available activities can follow along without polling.
+ * <p>
+ * The count itself is read and updated through a handful of protected atomic primitives, so a
+ * subclass can keep it somewhere other than the heap, such as a memory-mapped file shared between
+ * processes, without changing the reservation logic.
+ */
+public class SeatInventory {
+    private final AtomicInteger remaining;
+    private volatile Runnable availabilityCallback;
+
+    /**
+     * Constructs a SeatInventory object.
+     *
+     * @param capacity The number of seats initially available.
+     */
+    public SeatInventory(int capacity) {
+        this.remaining = new AtomicInteger(Math.max(capacity, 0));
+    }
+
+    /**
+     * Constructor for subclasses that keep the count elsewhere and override every primitive.
+     */
+    protected SeatInventory() {
+        this.remaining = null;
+    }
+
+    /**
+     * Sets the callback run when the inventory sells out or becomes available again. The callback runs
+     * on the thread that caused the change and should only re-read the inventory.
+     *
+     * @param availabilityCallback The callback, or null to remove it.
+     */
+    public void setAvailabilityCallback(Runnable availabilityCallback) {
+        this.availabilityCallback = availabilityCallback;
+    }
+
+    /**
+     * Gets the number of seats still available.
+     *
+     * @return The number of remaining seats.
+     */
+    public int remaining() {
+        return load();
+    }
+
+    /**
+     * Checks if the count outlives this process, in which case reservations made before a restart are
+     * already reflected in it and must not be applied again during recovery.
+     *
+     * @return true if the count is durable, false if it only lives on the heap.
+     */
+    public boolean isDurable() {
+        return false;
+    }
+
+    /**
+     * Reserves a single seat if one is available.
+     *
+     * @return true if a seat was reserved, false if the inventory is sold out.
+     */
+    public boolean tryReserve() {
+        for (;;) {
+            int current = load();
+            if (current <= 0) {
+                return false;
+            }
+            if (compareAndSet(current, current - 1)) {
+                if (current == 1) {
+                    availabilityChanged();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves up to the requested number of seats in one step.
+     *
+     * @param seats The number of seats wanted.
+     * @return The number of seats actually reserved, between 0 and {@code seats}.
+     */
+    public int tryReserve(int seats) {
+        if (seats <= 0) {
+            return 0;
+        }
+        for (;;) {
+            int current = load();
+            if (current <= 0) {
+                return 0;
+            }
+            int granted = Math.min(current, seats);
+            if (compareAndSet(current, current - granted)) {
+                if (current == granted) {
+                    availabilityChanged();
+                }
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * Returns a previously reserved seat to the inventory.
+     */
+    public void release() {
+        release(1);
+    }
+
+    /**
+     * Returns previously reserved seats to the inventory.
+     *
+     * @param seats The number of seats to return.
+     */
+    public void release(int seats) {
+        if (seats > 0 && getAndAdd(seats) == 0) {
+            availabilityChanged();
+        }
+    }
+
+    /**
+     * Overwrites the number of available seats.
+     *
+     * @param capacity The number of seats to make available.
+     */
+    public void reset(int capacity) {
+        int updated = Math.max(capacity, 0);
+        int previous = getAndSet(updated);
+        if ((previous > 0) != (updated > 0)) {
+            availabilityChanged();
+        }
+    }
+
+    /**
+     * Reads the count with volatile semantics.
+     *
+     * @return The number of remaining seats.
+     */
+    protected int load() {
+        return remaining.get();
+    }
+
+    /**
+     * Atomically sets the count if it still holds the expected value.
+     *
+     * @param expected The value the count must hold.
+     * @param updated  The new value.
+     * @return true if the count was updated.
+     */
+    protected boolean compareAndSet(int expected, int updated) {
+        return remaining.compareAndSet(expected, updated);
+    }
+
+    /**
+     * Atomically adds to the count.
+     *
+     * @param delta The amount to add.
+     * @return The previous value.
+     */
+    protected int getAndAdd(int delta) {
+        return remaining.getAndAdd(delta);
+    }
+
+    /**
+     * Atomically replaces the count.
+     *
+     * @param value The new value.
+     * @return The previous value.
+     */
+    protected int getAndSet(int value) {
+        return remaining.getAndSet(value);
+    }
+
+    Runnable getAvailabilityCallback() {
+        return availabilityCallback;
+    }
+
+    private void availabilityChanged() {
+        Runnable callback = availabilityCallback;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package travelagency.nymble.model;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a travel package offered by the travel agency.
@@ -24,8 +25,8 @@ public class TravelPackage {
         this.id = id;
         this.name = name;
         this.passengerCapacity = passengerCapacity;
-        this.destinations = new ArrayList<>();
-        this.passengers = new ArrayList<>();
+        this.destinations = new CopyOnWriteArrayList<>();
+        this.passengers = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -100,6 +101,16 @@ public class TravelPackage {
         passengers.add(passenger);
     }
 
+    /**
+     * Adds several passengers to the travel package in one step, copying the passenger list once
+     * instead of once per passenger.
+     *
+     * @param newPassengers The passengers to add.
+     */
+    public void addPassengers(Collection<Passenger> newPassengers) {
+        passengers.addAll(newPassengers);
+    }
+
     /**
      * Finds a destination in the travel package by its name.
      *
@@ -0,0 +1,122 @@
+package travelagency.nymble.repository;
+
+import travelagency.nymble.model.Activity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live index of the catalog activities that still have seats, kept both in registration order and
+ * sorted by cost.
+ * <p>
+ * Registered activities report when they sell out or get seats back through their
+ * {@link travelagency.nymble.model.SeatInventory} callback, so listing availability costs O(result)
+ * instead of a walk over the whole catalog. Every update re-reads the inventory while holding the
+ * activity's slot in {@code ordinals}, so racing sell-out and release notifications always leave the
+ * index matching the latest inventory state.
+ */
+class AvailabilityIndex {
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Activity, Long> ordinals = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Activity> available = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<CostKey, Activity> availableByCost = new ConcurrentSkipListMap<>();
+
+    /**
+     * Starts tracking an activity. Registering the same activity twice has no effect.
+     *
+     * @param activity The activity to track.
+     */
+    void register(Activity activity) {
+        if (ordinals.containsKey(activity)) {
+            return;
+        }
+        if (ordinals.putIfAbsent(activity, sequence.incrementAndGet()) == null) {
+            activity.getSeatInventory().setAvailabilityCallback(() -> refresh(activity));
+            refresh(activity);
+        }
+    }
+
+    /**
+     * Re-reads the inventory of every tracked activity, for changes made outside this process.
+     */
+    void refreshAll() {
+        for (Activity activity : ordinals.keySet()) {
+            refresh(activity);
+        }
+    }
+
+    /**
+     * Retrieves the tracked activities that have seats available, in registration order.
+     *
+     * @return The list of available activities.
+     */
+    List<Activity> availableActivities() {
+        List<Activity> activities = new ArrayList<>();
+        for (Activity activity : available.values()) {
+            // An entry may be a moment behind a concurrent sell-out; never report it as available.
+            if (activity.hasAvailability()) {
+                activities.add(activity);
+            }
+        }
+        return activities;
+    }
+
+    /**
+     * Retrieves a page of available activities whose cost is at most a given amount, cheapest first.
+     *
+     * @param maxCost The highest cost to include.
+     * @param after   The last entry of the previous page, or null to start from the cheapest.
+     * @param limit   The maximum number of entries to return.
+     * @return The activities that still have seats, in cost order.
+     */
+    List<RankedActivity> availableActivitiesUpTo(double maxCost, RankedActivity after, int limit) {
+        CostKey upper = new CostKey(maxCost, Long.MAX_VALUE);
+        Map<CostKey, Activity> range;
+        if (after == null) {
+            range = availableByCost.headMap(upper, true);
+        } else {
+            CostKey lower = new CostKey(after.cost(), after.rank());
+            // A cursor past the cost limit, e.g. after the balance dropped between pages, has nothing left.
+            if (lower.compareTo(upper) >= 0) {
+                return List.of();
+            }
+            range = availableByCost.subMap(lower, false, upper, true);
+        }
+        List<RankedActivity> activities = new ArrayList<>(Math.min(limit, 64));
+        for (Map.Entry<CostKey, Activity> entry : range.entrySet()) {
+            if (activities.size() == limit) {
+                break;
+            }
+            if (entry.getValue().hasAvailability()) {
+                activities.add(new RankedActivity(entry.getValue(), entry.getKey().cost(), entry.getKey().ordinal()));
+            }
+        }
+        return activities;
+    }
+
+    private void refresh(Activity activity) {
+        ordinals.computeIfPresent(activity, (key, ordinal) -> {
+            CostKey costKey = new CostKey(activity.getCost(), ordinal);
+            if (activity.hasAvailability()) {
+                available.put(ordinal, activity);
+                availableByCost.put(costKey, activity);
+            } else {
+                available.remove(ordinal);
+                availableByCost.remove(costKey);
+            }
+            return ordinal;
+        });
+    }
+
+    private record CostKey(double cost, long ordinal) implements Comparable<CostKey> {
+        @Override
+        public int compareTo(CostKey other) {
+            int byCost = Double.compare(cost, other.cost);
+            return byCost != 0 ? byCost : Long.compare(ordinal, other.ordinal);
+        }
+    }
+}
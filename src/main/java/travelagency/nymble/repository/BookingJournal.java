@@ -0,0 +1,399 @@
+package travelagency.nymble.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of accepted sign-ups.
+ * <p>
+ * The journal is split into fixed-size segment files named after the sequence number of their first
+ * record. Each record takes 32 bytes: the sequence number, passenger number, activity ID and price,
+ * protected by a CRC32C so a record torn by a crash is recognised and dropped on recovery.
+ * <p>
+ * Appending only copies the record into the mapped segment. Making it durable is left to a single
+ * committer thread that forces the segment to disk for every record appended since its last flush,
+ * so concurrent bookings share one {@code fsync} (group commit). Callers that need durability wait
+ * for their sequence number with {@link #awaitDurable(long)}.
+ * <p>
+ * If a flush fails, the journal is marked failed: waiting callers are woken and, like every later
+ * append, fail instead of waiting for a flush that will never come.
+ */
+@Component
+@ConditionalOnProperty(name = "nymble.journal.enabled", havingValue = "true")
+public class BookingJournal {
+    private static final int MAGIC = 0x4E59424A; // "NYBJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 32;
+    private static final int CHECKSUMMED_SIZE = 24;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition commitRequested = commitLock.newCondition();
+    private final Condition durableAdvanced = commitLock.newCondition();
+    private final ByteBuffer appendScratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32C appendChecksum = new CRC32C();
+    private final Thread committer;
+
+    private MappedByteBuffer segment;
+    private long segmentFirstSequence;
+    private int segmentRecords;
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+    private volatile boolean running = true;
+    private volatile RuntimeException failure;
+
+    /**
+     * Constructor for BookingJournal.
+     *
+     * @param directory   The directory holding the journal segments.
+     * @param segmentSize The size of each segment file in bytes.
+     */
+    @Autowired
+    public BookingJournal(
+            @Value("${nymble.journal.directory:data/journal}") Path directory,
+            @Value("${nymble.journal.segment-size:67108864}") int segmentSize
+    ) {
+        this.directory = directory;
+        this.recordsPerSegment = (segmentSize - HEADER_SIZE) / RECORD_SIZE;
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Journal segment size " + segmentSize + " is too small.");
+        }
+        this.committer = new Thread(this::commitLoop, "booking-journal-commit");
+        this.committer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal, recovering the position after the last intact record, and starts the committer.
+     *
+     * @throws IOException if the journal directory cannot be read or written.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            mapSegment(1);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            segment = map(last, FileChannel.MapMode.READ_WRITE);
+            segmentFirstSequence = readHeader(segment, last);
+            segmentRecords = countRecords(segment, segmentFirstSequence);
+        }
+        appendedSequence = segmentFirstSequence + segmentRecords - 1;
+        durableSequence = appendedSequence;
+        committer.start();
+    }
+
+    /**
+     * Flushes every appended record to disk and stops the committer.
+     *
+     * @throws InterruptedException if interrupted while waiting for the committer to finish.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        commitLock.lock();
+        try {
+            commitRequested.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        committer.join();
+    }
+
+    /**
+     * Appends a sign-up to the journal. The record is visible to {@link #replay} immediately but is
+     * only guaranteed to survive a crash once {@link #awaitDurable(long)} returns for its sequence number.
+     *
+     * @param passengerNumber The passenger number.
+     * @param activityId      The ID of the activity.
+     * @param price           The amount debited from the passenger.
+     * @return The sequence number of the record.
+     * @throws UncheckedIOException if the journal failed to flush earlier records or to roll to a new segment.
+     */
+    public long append(int passengerNumber, int activityId, double price) {
+        appendLock.lock();
+        try {
+            checkNotFailed();
+            if (segmentRecords == recordsPerSegment) {
+                force(segment);
+                mapSegment(segmentFirstSequence + segmentRecords);
+            }
+            long sequence = segmentFirstSequence + segmentRecords;
+            appendScratch.clear();
+            appendScratch.putLong(sequence).putInt(passengerNumber).putInt(activityId).putDouble(price);
+            appendChecksum.reset();
+            appendChecksum.update(appendScratch.array(), 0, CHECKSUMMED_SIZE);
+            appendScratch.putInt((int) appendChecksum.getValue()).putInt(0);
+            segment.put(HEADER_SIZE + segmentRecords * RECORD_SIZE, appendScratch.array());
+            segmentRecords++;
+            appendedSequence = sequence;
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll the booking journal to a new segment.", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a record has been flushed to disk.
+     *
+     * @param sequence The sequence number returned by {@link #append}.
+     * @throws UncheckedIOException if the journal failed before the record was flushed.
+     */
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        commitLock.lock();
+        try {
+            while (durableSequence < sequence && running && failure == null) {
+                commitRequested.signal();
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+        if (durableSequence < sequence) {
+            checkNotFailed();
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last appended record.
+     *
+     * @return The last sequence number, or 0 if the journal is empty.
+     */
+    public long getLastSequence() {
+        return appendedSequence;
+    }
+
+    /**
+     * Visits, in order, every intact record with a sequence number above the given one.
+     *
+     * @param afterSequence The last sequence number already applied.
+     * @param visitor       The visitor receiving the records.
+     * @return The number of records visited.
+     * @throws IOException if a segment cannot be read.
+     */
+    public long replay(long afterSequence, RecordVisitor visitor) throws IOException {
+        List<Path> segments = segments();
+        long visited = 0;
+        byte[] record = new byte[RECORD_SIZE];
+        CRC32C checksum = new CRC32C();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequenceOf(segments.get(i + 1)) <= afterSequence + 1) {
+                continue;
+            }
+            MappedByteBuffer buffer = map(segments.get(i), FileChannel.MapMode.READ_ONLY);
+            long expected = readHeader(buffer, segments.get(i));
+            for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= buffer.capacity(); offset += RECORD_SIZE, expected++) {
+                buffer.get(offset, record);
+                ByteBuffer view = ByteBuffer.wrap(record);
+                if (!isIntact(view, record, checksum, expected)) {
+                    break;
+                }
+                if (expected > afterSequence) {
+                    visitor.visit(expected, view.getInt(8), view.getInt(12), view.getDouble(16));
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Deletes the segments whose records all have sequence numbers up to the given one. The segment
+     * being appended to is always kept.
+     *
+     * @param throughSequence The last sequence number covered by a snapshot.
+     * @throws IOException if a segment cannot be deleted.
+     */
+    public void truncateThrough(long throughSequence) throws IOException {
+        List<Path> segments = segments();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i + 1)) <= throughSequence + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            commitLock.lock();
+            try {
+                while (running && appendedSequence == durableSequence) {
+                    commitRequested.awaitNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+                if (!running && appendedSequence == durableSequence) {
+                    durableAdvanced.signalAll();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                commitLock.unlock();
+            }
+
+            // Read the target before the segment: records in segments retired since were forced on roll.
+            long target = appendedSequence;
+            MappedByteBuffer current;
+            appendLock.lock();
+            try {
+                current = segment;
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                force(current);
+            } catch (RuntimeException e) {
+                commitLock.lock();
+                try {
+                    failure = e;
+                    durableAdvanced.signalAll();
+                } finally {
+                    commitLock.unlock();
+                }
+                return;
+            }
+
+            commitLock.lock();
+            try {
+                durableSequence = target;
+                durableAdvanced.signalAll();
+            } finally {
+                commitLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes a segment to disk.
+     *
+     * @param mapped The segment to flush.
+     */
+    void force(MappedByteBuffer mapped) {
+        mapped.force();
+    }
+
+    private void checkNotFailed() {
+        RuntimeException failed = failure;
+        if (failed != null) {
+            throw new UncheckedIOException("The booking journal could not be flushed to disk and no longer accepts bookings.",
+                    new IOException(failed));
+        }
+    }
+
+    private void mapSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+            mapped.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, firstSequence);
+            mapped.force();
+            segment = mapped;
+        }
+        segmentFirstSequence = firstSequence;
+        segmentRecords = 0;
+    }
+
+    private int countRecords(MappedByteBuffer buffer, long firstSequence) {
+        byte[] record = new byte[RECORD_SIZE];
+        CRC32C checksum = new CRC32C();
+        int count = 0;
+        for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= buffer.capacity() && count < recordsPerSegment; offset += RECORD_SIZE) {
+            buffer.get(offset, record);
+            if (!isIntact(ByteBuffer.wrap(record), record, checksum, firstSequence + count)) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isIntact(ByteBuffer view, byte[] record, CRC32C checksum, long expectedSequence) {
+        if (view.getLong(0) != expectedSequence) {
+            return false;
+        }
+        checksum.reset();
+        checksum.update(record, 0, CHECKSUMMED_SIZE);
+        return view.getInt(CHECKSUMMED_SIZE) == (int) checksum.getValue();
+    }
+
+    private static long readHeader(MappedByteBuffer buffer, Path path) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a booking journal segment.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(path + " has unsupported journal version " + buffer.getInt(4) + ".");
+        }
+        return buffer.getLong(8);
+    }
+
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(mode, 0, channel.size());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .toList());
+            segments.sort((a, b) -> Long.compare(firstSequenceOf(a), firstSequenceOf(b)));
+            return segments;
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Receives the records read back from the journal.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * Called for each journal record.
+         *
+         * @param sequence        The sequence number of the record.
+         * @param passengerNumber The passenger number.
+         * @param activityId      The ID of the activity.
+         * @param price           The amount debited from the passenger.
+         */
+        void visit(long sequence, int passengerNumber, int activityId, double price);
+    }
+}
@@ -0,0 +1,241 @@
+package travelagency.nymble.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.model.SeatInventory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat counts of the catalog activities, kept in a memory-mapped file that every process on the host
+ * maps at the same time.
+ * <p>
+ * The file holds a small header followed by a fixed number of slots, each padded to a cache line so
+ * that busy activities do not contend on the same line. A slot holds an activity ID and its remaining
+ * seats and is found by open addressing on the ID. The seats are read and updated in place with
+ * {@link VarHandle} volatile reads and compare-and-set on the mapped buffer, which the processor makes
+ * atomic across every process mapping the page, so processes sharing the file can never oversell an
+ * activity between them.
+ * <p>
+ * A free slot is claimed by setting its ID to the negated activity ID, filling in the initial seats
+ * and only then publishing the positive ID, so other processes never see a half-initialized slot. The
+ * first process to claim an activity seeds it with its own capacity; later processes, and restarts,
+ * pick up the count as it is. The header also holds a counter that is bumped whenever an activity gets
+ * seats back after selling out, so processes can tell that their availability indexes are stale.
+ * <p>
+ * Enabled with {@code nymble.capacity-ledger.enabled=true}, in which case the catalog activities are
+ * attached to it as they are indexed.
+ */
+@Component
+@ConditionalOnProperty(name = "nymble.capacity-ledger.enabled", havingValue = "true")
+public class CapacityLedger {
+    private static final int MAGIC = 0x4E59424C; // "NYBL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOT_COUNT_OFFSET = 8;
+    private static final int RESTOCK_COUNT_OFFSET = 12;
+    private static final int ID_OFFSET = 0;
+    private static final int SEATS_OFFSET = 4;
+    private static final long CLAIM_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path path;
+    private final int configuredSlots;
+    private MappedByteBuffer buffer;
+    private int slotCount;
+
+    /**
+     * Constructor for CapacityLedger.
+     *
+     * @param path  The ledger file.
+     * @param slots The number of activities the ledger can hold when it is created.
+     */
+    @Autowired
+    public CapacityLedger(
+            @Value("${nymble.capacity-ledger.path:data/capacity.ledger}") Path path,
+            @Value("${nymble.capacity-ledger.slots:16384}") int slots
+    ) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Capacity ledger needs at least one slot, got " + slots + ".");
+        }
+        this.path = path;
+        this.configuredSlots = slots;
+    }
+
+    /**
+     * Maps the ledger file, creating it if no process has yet. An existing ledger keeps its own number
+     * of slots.
+     *
+     * @throws IOException if the file cannot be created or mapped, or is not a capacity ledger.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            // The file lock only guards creation; once mapped, the slots are updated without it.
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+                header.putInt(MAGIC_OFFSET, MAGIC).putInt(VERSION_OFFSET, VERSION).putInt(SLOT_COUNT_OFFSET, configuredSlots);
+                channel.write(header, 0);
+                channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) configuredSlots * SLOT_SIZE - 1);
+                channel.force(true);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+            channel.read(header, 0);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException(path + " is not a capacity ledger.");
+            }
+            if (header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(path + " has unsupported capacity ledger version " + header.getInt(VERSION_OFFSET) + ".");
+            }
+            slotCount = header.getInt(SLOT_COUNT_OFFSET);
+            long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+            if (slotCount <= 0 || channel.size() < size) {
+                throw new IOException(path + " is truncated.");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Writes the mapped seat counts back to the file. Other processes see every update immediately
+     * regardless; this only matters for surviving a crash of the host.
+     */
+    @PreDestroy
+    public void close() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Gets the seat inventory of an activity, claiming a slot for it if it has none yet.
+     *
+     * @param activityId      The database ID of the activity.
+     * @param initialCapacity The seats to start with if the activity is new to the ledger.
+     * @return The seat inventory, backed by the ledger.
+     * @throws IllegalArgumentException if the activity ID is not positive.
+     * @throws IllegalStateException    if the ledger has no free slot left.
+     */
+    public SeatInventory inventoryFor(int activityId, int initialCapacity) {
+        if (activityId <= 0) {
+            throw new IllegalArgumentException("Only activities loaded from the database can use the capacity ledger, got ID " + activityId + ".");
+        }
+        int slot = (activityId * 0x9E3779B9 >>> 1) % slotCount;
+        for (int probes = 0; probes < slotCount; probes++) {
+            int offset = HEADER_SIZE + slot * SLOT_SIZE;
+            int id = (int) INT.getVolatile(buffer, offset + ID_OFFSET);
+            if (id == 0 && INT.compareAndSet(buffer, offset + ID_OFFSET, 0, -activityId)) {
+                INT.setVolatile(buffer, offset + SEATS_OFFSET, Math.max(initialCapacity, 0));
+                INT.setVolatile(buffer, offset + ID_OFFSET, activityId);
+                return new MappedSeatInventory(offset + SEATS_OFFSET);
+            }
+            id = (int) INT.getVolatile(buffer, offset + ID_OFFSET);
+            if (id == -activityId) {
+                awaitClaim(offset, activityId, initialCapacity);
+                id = activityId;
+            }
+            if (id == activityId) {
+                return new MappedSeatInventory(offset + SEATS_OFFSET);
+            }
+            slot = slot + 1 == slotCount ? 0 : slot + 1;
+        }
+        throw new IllegalStateException("Capacity ledger " + path + " has no free slot for activity " + activityId + ".");
+    }
+
+    /**
+     * Gets the number of times an activity got seats back after selling out, across all processes.
+     *
+     * @return The restock count; only changes to it are meaningful.
+     */
+    public int getRestockCount() {
+        return (int) INT.getVolatile(buffer, RESTOCK_COUNT_OFFSET);
+    }
+
+    /**
+     * Waits for another process to publish a slot it claimed, finishing the claim itself if that
+     * process died halfway through.
+     */
+    private void awaitClaim(int offset, int activityId, int initialCapacity) {
+        long deadline = System.nanoTime() + CLAIM_TIMEOUT_NANOS;
+        while ((int) INT.getVolatile(buffer, offset + ID_OFFSET) == -activityId) {
+            if (System.nanoTime() - deadline > 0) {
+                INT.setVolatile(buffer, offset + SEATS_OFFSET, Math.max(initialCapacity, 0));
+                INT.compareAndSet(buffer, offset + ID_OFFSET, -activityId, activityId);
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void restocked() {
+        INT.getAndAdd(buffer, RESTOCK_COUNT_OFFSET, 1);
+    }
+
+    /**
+     * Seat inventory reading and updating one slot of the mapped ledger.
+     */
+    private final class MappedSeatInventory extends SeatInventory {
+        private final int offset;
+
+        private MappedSeatInventory(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean isDurable() {
+            return true;
+        }
+
+        @Override
+        protected int load() {
+            return (int) INT.getVolatile(buffer, offset);
+        }
+
+        @Override
+        protected boolean compareAndSet(int expected, int updated) {
+            return INT.compareAndSet(buffer, offset, expected, updated);
+        }
+
+        @Override
+        protected int getAndAdd(int delta) {
+            int previous = (int) INT.getAndAdd(buffer, offset, delta);
+            if (previous <= 0 && previous + delta > 0) {
+                restocked();
+            }
+            return previous;
+        }
+
+        @Override
+        protected int getAndSet(int value) {
+            int previous = (int) INT.getAndSet(buffer, offset, value);
+            if (previous <= 0 && value > 0) {
+                restocked();
+            }
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package travelagency.nymble.repository;
+
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary image of the whole catalog: travel packages, destinations, activities, passengers
+ * and the sign-ups linking them.
+ * <p>
+ * Every string is stored once in a string table and referenced by index. Each entity kind is stored
+ * column by column as primitive arrays, and relations are stored as arrays of indexes, so the file is
+ * written and read with bulk buffer copies instead of per-object serialization. The file starts with a
+ * magic number and a format version and ends with a CRC32C of everything before it; readers reject
+ * versions they do not know and files that are truncated or fail the checksum.
+ * <p>
+ * Capturing only copies the catalog into arrays, so it can run while sign-ups are paused and leave the
+ * slower file write until after they resume.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x4E594243; // "NYBC"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int NO_STRING = -1;
+
+    private final String[] strings;
+    private final int[] packageIds;
+    private final int[] packageNames;
+    private final int[] packageCapacities;
+    private final int[] destinationIds;
+    private final int[] destinationNames;
+    private final int[] packageDestinationPackages;
+    private final int[] packageDestinationDestinations;
+    private final int[] activityIds;
+    private final int[] activityNames;
+    private final int[] activityDescriptions;
+    private final double[] activityCosts;
+    private final int[] activityCapacities;
+    private final int[] activityDestinations;
+    private final int[] passengerNumbers;
+    private final int[] passengerNames;
+    private final int[] passengerTypes;
+    private final double[] passengerBalances;
+    private final int[] packagePassengerPackages;
+    private final int[] packagePassengerPassengers;
+    private final int[] signUpPassengers;
+    private final int[] signUpActivities;
+
+    private CatalogSnapshot(String[] strings, int[][] ints, double[][] doubles) {
+        this.strings = strings;
+        this.packageIds = ints[0];
+        this.packageNames = ints[1];
+        this.packageCapacities = ints[2];
+        this.destinationIds = ints[3];
+        this.destinationNames = ints[4];
+        this.packageDestinationPackages = ints[5];
+        this.packageDestinationDestinations = ints[6];
+        this.activityIds = ints[7];
+        this.activityNames = ints[8];
+        this.activityDescriptions = ints[9];
+        this.activityCapacities = ints[10];
+        this.activityDestinations = ints[11];
+        this.passengerNumbers = ints[12];
+        this.passengerNames = ints[13];
+        this.passengerTypes = ints[14];
+        this.packagePassengerPackages = ints[15];
+        this.packagePassengerPassengers = ints[16];
+        this.signUpPassengers = ints[17];
+        this.signUpActivities = ints[18];
+        this.activityCosts = doubles[0];
+        this.passengerBalances = doubles[1];
+    }
+
+    /**
+     * Copies the state of a catalog into a snapshot.
+     *
+     * @param travelPackages The travel packages of the catalog.
+     * @return The snapshot.
+     */
+    public static CatalogSnapshot capture(List<TravelPackage> travelPackages) {
+        StringTable stringTable = new StringTable();
+        Map<Destination, Integer> destinationIndexes = new IdentityHashMap<>();
+        Map<Activity, Integer> activityIndexes = new IdentityHashMap<>();
+        Map<Passenger, Integer> passengerIndexes = new IdentityHashMap<>();
+        List<Destination> destinations = new ArrayList<>();
+        List<Activity> activities = new ArrayList<>();
+        List<Integer> activityDestinationList = new ArrayList<>();
+        List<Passenger> passengers = new ArrayList<>();
+        IntPairList packageDestinations = new IntPairList();
+        IntPairList packagePassengers = new IntPairList();
+
+        for (int p = 0; p < travelPackages.size(); p++) {
+            TravelPackage travelPackage = travelPackages.get(p);
+            for (Destination destination : travelPackage.getDestinations()) {
+                Integer d = destinationIndexes.get(destination);
+                if (d == null) {
+                    d = destinations.size();
+                    destinationIndexes.put(destination, d);
+                    destinations.add(destination);
+                    for (Activity activity : destination.getActivities()) {
+                        if (!activityIndexes.containsKey(activity)) {
+                            activityIndexes.put(activity, activities.size());
+                            activities.add(activity);
+                            activityDestinationList.add(d);
+                        }
+                    }
+                }
+                packageDestinations.add(p, d);
+            }
+            for (Passenger passenger : travelPackage.getPassengers()) {
+                Integer index = passengerIndexes.get(passenger);
+                if (index == null) {
+                    index = passengers.size();
+                    passengerIndexes.put(passenger, index);
+                    passengers.add(passenger);
+                }
+                packagePassengers.add(p, index);
+            }
+        }
+
+        IntPairList signUps = new IntPairList();
+        for (int i = 0; i < passengers.size(); i++) {
+            for (Activity activity : passengers.get(i).getActivities()) {
+                Integer a = activityIndexes.get(activity);
+                if (a != null) {
+                    signUps.add(i, a);
+                }
+            }
+        }
+
+        int[][] ints = new int[19][];
+        double[][] doubles = new double[2][];
+        ints[0] = travelPackages.stream().mapToInt(TravelPackage::getId).toArray();
+        ints[1] = travelPackages.stream().mapToInt(travelPackage -> stringTable.indexOf(travelPackage.getName())).toArray();
+        ints[2] = travelPackages.stream().mapToInt(TravelPackage::getPassengerCapacity).toArray();
+        ints[3] = destinations.stream().mapToInt(Destination::getId).toArray();
+        ints[4] = destinations.stream().mapToInt(destination -> stringTable.indexOf(destination.getName())).toArray();
+        ints[5] = packageDestinations.firsts();
+        ints[6] = packageDestinations.seconds();
+        ints[7] = activities.stream().mapToInt(Activity::getId).toArray();
+        ints[8] = activities.stream().mapToInt(activity -> stringTable.indexOf(activity.getName())).toArray();
+        ints[9] = activities.stream().mapToInt(activity -> stringTable.indexOf(activity.getDescription())).toArray();
+        ints[10] = activities.stream().mapToInt(Activity::getCapacity).toArray();
+        ints[11] = activityDestinationList.stream().mapToInt(Integer::intValue).toArray();
+        ints[12] = passengers.stream().mapToInt(Passenger::getPassengerNumber).toArray();
+        ints[13] = passengers.stream().mapToInt(passenger -> stringTable.indexOf(passenger.getName())).toArray();
+        ints[14] = passengers.stream().mapToInt(passenger -> stringTable.indexOf(passenger.getPassengerType())).toArray();
+        ints[15] = packagePassengers.firsts();
+        ints[16] = packagePassengers.seconds();
+        ints[17] = signUps.firsts();
+        ints[18] = signUps.seconds();
+        doubles[0] = activities.stream().mapToDouble(Activity::getCost).toArray();
+        doubles[1] = passengers.stream().mapToDouble(Passenger::getBalance).toArray();
+        return new CatalogSnapshot(stringTable.toArray(), ints, doubles);
+    }
+
+    /**
+     * Reads a snapshot from a file through a read-only memory mapping.
+     *
+     * @param path The snapshot file.
+     * @return The snapshot.
+     * @throws IOException if the file cannot be read, is not a snapshot of a supported version, or is
+     *                     truncated or corrupt.
+     */
+    public static CatalogSnapshot readFrom(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE + CHECKSUM_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException(path + " is not a catalog snapshot.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(path + " has unsupported catalog snapshot version " + version + ".");
+        }
+        int checksumPosition = buffer.capacity() - CHECKSUM_SIZE;
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.duplicate().position(0).limit(checksumPosition));
+        if ((int) checksum.getValue() != buffer.getInt(checksumPosition)) {
+            throw new IOException(path + " is truncated or corrupt: checksum mismatch.");
+        }
+        buffer.limit(checksumPosition);
+
+        try {
+            String[] strings = new String[readCount(buffer, 4, path)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readCount(buffer, 1, path)];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int[][] ints = new int[19][];
+            for (int i = 0; i < ints.length; i++) {
+                ints[i] = new int[readCount(buffer, 4, path)];
+                buffer.asIntBuffer().get(ints[i]);
+                buffer.position(buffer.position() + 4 * ints[i].length);
+            }
+            double[][] doubles = new double[2][];
+            for (int i = 0; i < doubles.length; i++) {
+                doubles[i] = new double[readCount(buffer, 8, path)];
+                buffer.asDoubleBuffer().get(doubles[i]);
+                buffer.position(buffer.position() + 8 * doubles[i].length);
+            }
+            return new CatalogSnapshot(strings, ints, doubles);
+        } catch (RuntimeException e) {
+            throw new IOException(path + " is corrupt: " + e, e);
+        }
+    }
+
+    /**
+     * Reads the element count of the next array and checks that the rest of the file can hold it.
+     */
+    private static int readCount(ByteBuffer buffer, int elementSize, Path path) throws IOException {
+        if (buffer.remaining() < 4) {
+            throw new IOException(path + " is truncated.");
+        }
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * elementSize > buffer.remaining()) {
+            throw new IOException(path + " is truncated or corrupt: array of " + count + " elements does not fit.");
+        }
+        return count;
+    }
+
+    /**
+     * Writes the snapshot to a file. The file is replaced atomically, so readers never see a partial snapshot.
+     *
+     * @param path The snapshot file.
+     * @return The size of the file in bytes.
+     * @throws IOException if the file cannot be written.
+     */
+    public long writeTo(Path path) throws IOException {
+        byte[][] encoded = new byte[strings.length][];
+        long size = HEADER_SIZE + 4 + CHECKSUM_SIZE;
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+            size += 4 + encoded[i].length;
+        }
+        int[][] ints = intColumns();
+        for (int[] column : ints) {
+            size += 4 + 4L * column.length;
+        }
+        double[][] doubles = doubleColumns();
+        for (double[] column : doubles) {
+            size += 4 + 8L * column.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(strings.length);
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        for (int[] column : ints) {
+            buffer.putInt(column.length);
+            buffer.asIntBuffer().put(column);
+            buffer.position(buffer.position() + 4 * column.length);
+        }
+        for (double[] column : doubles) {
+            buffer.putInt(column.length);
+            buffer.asDoubleBuffer().put(column);
+            buffer.position(buffer.position() + 8 * column.length);
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Rebuilds the object graph held by the snapshot.
+     *
+     * @return The travel packages with their destinations, activities, passengers and sign-ups wired up.
+     */
+    public List<TravelPackage> toTravelPackages() {
+        return toTravelPackages(null);
+    }
+
+    /**
+     * Rebuilds the object graph held by the snapshot, keeping the passengers in a compact store.
+     *
+     * @param compactPassengerStore The store to add the passengers to, or null for regular passengers.
+     * @return The travel packages with their destinations, activities, passengers and sign-ups wired up.
+     */
+    public List<TravelPackage> toTravelPackages(CompactPassengerStore compactPassengerStore) {
+        List<TravelPackage> travelPackages = new ArrayList<>(packageIds.length);
+        for (int i = 0; i < packageIds.length; i++) {
+            travelPackages.add(new TravelPackage(packageIds[i], string(packageNames[i]), packageCapacities[i]));
+        }
+        Destination[] destinations = new Destination[destinationIds.length];
+        for (int i = 0; i < destinations.length; i++) {
+            destinations[i] = new Destination(destinationIds[i], string(destinationNames[i]));
+        }
+        for (int i = 0; i < packageDestinationPackages.length; i++) {
+            travelPackages.get(packageDestinationPackages[i]).addDestination(destinations[packageDestinationDestinations[i]]);
+        }
+        Activity[] activities = new Activity[activityIds.length];
+        for (int i = 0; i < activities.length; i++) {
+            Destination destination = destinations[activityDestinations[i]];
+            activities[i] = new Activity(string(activityNames[i]), string(activityDescriptions[i]),
+                    activityCosts[i], activityCapacities[i], destination);
+            activities[i].setId(activityIds[i]);
+            destination.addActivity(activities[i]);
+        }
+        Passenger[] passengers = new Passenger[passengerNumbers.length];
+        for (int i = 0; i < passengers.length; i++) {
+            passengers[i] = compactPassengerStore != null
+                    ? compactPassengerStore.add(string(passengerNames[i]), passengerNumbers[i], passengerBalances[i], string(passengerTypes[i]))
+                    : new Passenger(string(passengerNames[i]), passengerNumbers[i], passengerBalances[i], string(passengerTypes[i]));
+        }
+        List<List<Passenger>> packagePassengers = new ArrayList<>(travelPackages.size());
+        for (int i = 0; i < travelPackages.size(); i++) {
+            packagePassengers.add(new ArrayList<>());
+        }
+        for (int i = 0; i < packagePassengerPackages.length; i++) {
+            packagePassengers.get(packagePassengerPackages[i]).add(passengers[packagePassengerPassengers[i]]);
+        }
+        for (int i = 0; i < travelPackages.size(); i++) {
+            travelPackages.get(i).addPassengers(packagePassengers.get(i));
+        }
+        for (int i = 0; i < signUpPassengers.length; i++) {
+            Passenger passenger = passengers[signUpPassengers[i]];
+            Activity activity = activities[signUpActivities[i]];
+            passenger.addActivity(activity);
+            activity.signUpPassenger(passenger);
+        }
+        return travelPackages;
+    }
+
+    /**
+     * Gets the number of travel packages in the snapshot.
+     *
+     * @return The number of travel packages.
+     */
+    public int getTravelPackageCount() {
+        return packageIds.length;
+    }
+
+    /**
+     * Gets the number of destinations in the snapshot.
+     *
+     * @return The number of destinations.
+     */
+    public int getDestinationCount() {
+        return destinationIds.length;
+    }
+
+    /**
+     * Gets the number of activities in the snapshot.
+     *
+     * @return The number of activities.
+     */
+    public int getActivityCount() {
+        return activityIds.length;
+    }
+
+    /**
+     * Gets the number of passengers in the snapshot.
+     *
+     * @return The number of passengers.
+     */
+    public int getPassengerCount() {
+        return passengerNumbers.length;
+    }
+
+    private String string(int index) {
+        return index == NO_STRING ? null : strings[index];
+    }
+
+    private int[][] intColumns() {
+        return new int[][]{
+                packageIds, packageNames, packageCapacities,
+                destinationIds, destinationNames, packageDestinationPackages, packageDestinationDestinations,
+                activityIds, activityNames, activityDescriptions, activityCapacities, activityDestinations,
+                passengerNumbers, passengerNames, passengerTypes, packagePassengerPackages, packagePassengerPassengers,
+                signUpPassengers, signUpActivities
+        };
+    }
+
+    private double[][] doubleColumns() {
+        return new double[][]{activityCosts, passengerBalances};
+    }
+
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int indexOf(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            return indexes.computeIfAbsent(value, key -> {
+                strings.add(key);
+                return strings.size() - 1;
+            });
+        }
+
+        String[] toArray() {
+            return strings.toArray(new String[0]);
+        }
+    }
+
+    private static final class IntPairList {
+        private int[] firsts = new int[16];
+        private int[] seconds = new int[16];
+        private int size;
+
+        void add(int first, int second) {
+            if (size == firsts.length) {
+                firsts = Arrays.copyOf(firsts, size * 2);
+                seconds = Arrays.copyOf(seconds, size * 2);
+            }
+            firsts[size] = first;
+            seconds[size] = second;
+            size++;
+        }
+
+        int[] firsts() {
+            return Arrays.copyOf(firsts, size);
+        }
+
+        int[] seconds() {
+            return Arrays.copyOf(seconds, size);
+        }
+    }
+}
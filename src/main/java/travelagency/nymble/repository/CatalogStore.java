@@ -0,0 +1,392 @@
+package travelagency.nymble.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory catalog of travel packages shared by {@link TravelPackageRepository} and the service layer.
+ * <p>
+ * Lookups go through hash indexes on the package name, the (package, destination) pair and the
+ * (package, destination, activity) triple, so they cost O(1) regardless of the catalog size. Passengers
+ * are indexed by passenger number in primitive int-keyed maps, one to the passenger and one to the
+ * packages they are enrolled in, so passenger lookups neither box nor allocate. Reads are
+ * lock-free; writes are serialized so that the indexes and the model lists never disagree. Activities
+ * with seats left are additionally tracked by an {@link AvailabilityIndex} that follows bookings live.
+ * <p>
+ * When a {@link CapacityLedger} is configured, activities loaded from the database take their seats
+ * from it as they are indexed, so every process sharing the ledger books against the same counts.
+ */
+@Component
+public class CatalogStore {
+    private final List<TravelPackage> travelPackages = new CopyOnWriteArrayList<>();
+    private final Map<String, TravelPackage> packagesByName = new ConcurrentHashMap<>();
+    private final Map<DestinationKey, Destination> destinationsByKey = new ConcurrentHashMap<>();
+    private final Map<String, DestinationKey> destinationKeysByName = new ConcurrentHashMap<>();
+    private final Map<ActivityKey, Activity> activitiesByKey = new ConcurrentHashMap<>();
+    private final IntObjectMap<Activity> activitiesById = new IntObjectMap<>();
+    private final IntObjectMap<Passenger> passengersByNumber = new IntObjectMap<>();
+    private final IntObjectMap<List<TravelPackage>> packagesByPassenger = new IntObjectMap<>();
+    private final AvailabilityIndex availabilityIndex = new AvailabilityIndex();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final CapacityLedger capacityLedger;
+    private volatile int seenRestockCount;
+
+    /**
+     * Constructor for CatalogStore keeping seat counts on the heap.
+     */
+    public CatalogStore() {
+        this((CapacityLedger) null);
+    }
+
+    /**
+     * Constructor for CatalogStore.
+     *
+     * @param capacityLedger The shared ledger holding the seat counts, or null to keep them on the heap.
+     */
+    public CatalogStore(CapacityLedger capacityLedger) {
+        this.capacityLedger = capacityLedger;
+        this.seenRestockCount = capacityLedger != null ? capacityLedger.getRestockCount() : 0;
+    }
+
+    /**
+     * Constructor for CatalogStore.
+     *
+     * @param capacityLedger The shared ledger holding the seat counts, if configured.
+     */
+    @Autowired
+    public CatalogStore(ObjectProvider<CapacityLedger> capacityLedger) {
+        this(capacityLedger.getIfAvailable());
+    }
+
+    /**
+     * Adds a travel package to the catalog, indexing any destinations, activities and passengers it
+     * already holds.
+     *
+     * @param travelPackage The travel package to add.
+     */
+    public void addTravelPackage(TravelPackage travelPackage) {
+        writeLock.lock();
+        try {
+            travelPackages.add(travelPackage);
+            packagesByName.putIfAbsent(travelPackage.getName(), travelPackage);
+            for (Destination destination : travelPackage.getDestinations()) {
+                indexDestination(travelPackage.getName(), destination);
+            }
+            for (Passenger passenger : travelPackage.getPassengers()) {
+                indexPassenger(travelPackage, passenger);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the travel packages in the order they were added.
+     *
+     * @return An unmodifiable view of the travel packages.
+     */
+    public List<TravelPackage> getTravelPackages() {
+        return Collections.unmodifiableList(travelPackages);
+    }
+
+    /**
+     * Adds a destination to a travel package.
+     *
+     * @param packageName The name of the travel package.
+     * @param destination The destination to add.
+     * @return true if the travel package exists, false otherwise.
+     */
+    public boolean addDestination(String packageName, Destination destination) {
+        writeLock.lock();
+        try {
+            TravelPackage travelPackage = packagesByName.get(packageName);
+            if (travelPackage == null) {
+                return false;
+            }
+            travelPackage.addDestination(destination);
+            indexDestination(packageName, destination);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds an activity to a destination in a travel package and links the activity back to it.
+     *
+     * @param packageName     The name of the travel package.
+     * @param destinationName The name of the destination.
+     * @param activity        The activity to add.
+     * @return true if the destination exists in the travel package, false otherwise.
+     */
+    public boolean addActivity(String packageName, String destinationName, Activity activity) {
+        writeLock.lock();
+        try {
+            Destination destination = destinationsByKey.get(new DestinationKey(packageName, destinationName));
+            if (destination == null) {
+                return false;
+            }
+            destination.addActivity(activity);
+            activity.setDestination(destination);
+            indexActivity(packageName, destinationName, activity);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a passenger to a travel package.
+     *
+     * @param packageName The name of the travel package.
+     * @param passenger   The passenger to add.
+     * @return true if the travel package exists, false otherwise.
+     */
+    public boolean addPassenger(String packageName, Passenger passenger) {
+        writeLock.lock();
+        try {
+            TravelPackage travelPackage = packagesByName.get(packageName);
+            if (travelPackage == null) {
+                return false;
+            }
+            travelPackage.addPassenger(passenger);
+            indexPassenger(travelPackage, passenger);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds several passengers to a travel package, copying its passenger list once.
+     *
+     * @param packageName The name of the travel package.
+     * @param passengers  The passengers to add.
+     * @return true if the travel package exists, false otherwise.
+     */
+    public boolean addPassengers(String packageName, List<Passenger> passengers) {
+        writeLock.lock();
+        try {
+            TravelPackage travelPackage = packagesByName.get(packageName);
+            if (travelPackage == null) {
+                return false;
+            }
+            travelPackage.addPassengers(passengers);
+            for (Passenger passenger : passengers) {
+                indexPassenger(travelPackage, passenger);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Finds a travel package by its name.
+     *
+     * @param packageName The name of the travel package.
+     * @return The found travel package, or null if not found.
+     */
+    public TravelPackage findTravelPackageByName(String packageName) {
+        return packagesByName.get(packageName);
+    }
+
+    /**
+     * Finds a destination of a travel package by its name.
+     *
+     * @param packageName     The name of the travel package.
+     * @param destinationName The name of the destination.
+     * @return The found destination, or null if not found.
+     */
+    public Destination findDestination(String packageName, String destinationName) {
+        return destinationsByKey.get(new DestinationKey(packageName, destinationName));
+    }
+
+    /**
+     * Finds a destination by its name across all travel packages. When several packages share a
+     * destination name, the first one added wins.
+     *
+     * @param destinationName The name of the destination.
+     * @return The found destination, or null if not found.
+     */
+    public Destination findDestinationByName(String destinationName) {
+        DestinationKey key = destinationKeysByName.get(destinationName);
+        return key != null ? destinationsByKey.get(key) : null;
+    }
+
+    /**
+     * Finds an activity of a destination in a travel package.
+     *
+     * @param packageName     The name of the travel package.
+     * @param destinationName The name of the destination.
+     * @param activityName    The name of the activity.
+     * @return The found activity, or null if not found.
+     */
+    public Activity findActivity(String packageName, String destinationName, String activityName) {
+        ActivityKey key = new ActivityKey(packageName, destinationName, activityName);
+        Activity activity = activitiesByKey.get(key);
+        if (activity != null) {
+            return activity;
+        }
+        Destination destination = destinationsByKey.get(new DestinationKey(packageName, destinationName));
+        if (destination == null) {
+            return null;
+        }
+        // Activities added straight onto a Destination bypass the index; pick them up on first use,
+        // under the write lock so this cannot race with addActivity indexing the same activity.
+        writeLock.lock();
+        try {
+            activity = activitiesByKey.get(key);
+            if (activity != null) {
+                return activity;
+            }
+            for (Activity candidate : destination.getActivities()) {
+                if (candidate.getName().equals(activityName)) {
+                    indexActivity(packageName, destinationName, candidate);
+                    return candidate;
+                }
+            }
+            return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Finds an activity by its name at a destination looked up across all travel packages.
+     *
+     * @param destinationName The name of the destination.
+     * @param activityName    The name of the activity.
+     * @return The found activity, or null if not found.
+     */
+    public Activity findActivityAtDestination(String destinationName, String activityName) {
+        DestinationKey key = destinationKeysByName.get(destinationName);
+        return key != null ? findActivity(key.packageName(), key.destinationName(), activityName) : null;
+    }
+
+    /**
+     * Finds an activity by its database ID.
+     *
+     * @param activityId The ID of the activity.
+     * @return The found activity, or null if not found or the activity was not loaded from the database.
+     */
+    public Activity findActivityById(int activityId) {
+        return activitiesById.get(activityId);
+    }
+
+    /**
+     * Finds a passenger by their passenger number across all travel packages.
+     *
+     * @param passengerNumber The passenger number.
+     * @return The found passenger, or null if not found.
+     */
+    public Passenger findPassengerByNumber(int passengerNumber) {
+        return passengersByNumber.get(passengerNumber);
+    }
+
+    /**
+     * Finds the travel packages a passenger is enrolled in.
+     *
+     * @param passengerNumber The passenger number.
+     * @return The travel packages in the order the passenger joined them, or an empty list if none.
+     */
+    public List<TravelPackage> findTravelPackagesOfPassenger(int passengerNumber) {
+        List<TravelPackage> travelPackagesOfPassenger = packagesByPassenger.get(passengerNumber);
+        return travelPackagesOfPassenger != null ? travelPackagesOfPassenger : List.of();
+    }
+
+    /**
+     * Retrieves the activities that still have seats available, in the order they were added.
+     *
+     * @return The list of available activities.
+     */
+    public List<Activity> getAvailableActivities() {
+        syncSharedAvailability();
+        return availabilityIndex.availableActivities();
+    }
+
+    /**
+     * Retrieves a page of available activities costing at most a given amount, cheapest first.
+     *
+     * @param maxCost The highest cost to include.
+     * @param after   The last entry of the previous page, or null to start from the cheapest.
+     * @param limit   The maximum number of entries to return.
+     * @return The available activities in cost order.
+     */
+    public List<RankedActivity> getAvailableActivitiesUpToCost(double maxCost, RankedActivity after, int limit) {
+        syncSharedAvailability();
+        return availabilityIndex.availableActivitiesUpTo(maxCost, after, limit);
+    }
+
+    private void indexPassenger(TravelPackage travelPackage, Passenger passenger) {
+        int passengerNumber = passenger.getPassengerNumber();
+        passengersByNumber.putIfAbsent(passengerNumber, passenger);
+        List<TravelPackage> enrolled = packagesByPassenger.get(passengerNumber);
+        if (enrolled == null) {
+            packagesByPassenger.put(passengerNumber, List.of(travelPackage));
+        } else if (!enrolled.contains(travelPackage)) {
+            List<TravelPackage> updated = new ArrayList<>(enrolled);
+            updated.add(travelPackage);
+            packagesByPassenger.put(passengerNumber, Collections.unmodifiableList(updated));
+        }
+    }
+
+    private void indexDestination(String packageName, Destination destination) {
+        DestinationKey key = new DestinationKey(packageName, destination.getName());
+        destinationsByKey.putIfAbsent(key, destination);
+        destinationKeysByName.putIfAbsent(destination.getName(), key);
+        for (Activity activity : destination.getActivities()) {
+            indexActivity(packageName, destination.getName(), activity);
+        }
+    }
+
+    private void indexActivity(String packageName, String destinationName, Activity activity) {
+        activitiesByKey.putIfAbsent(new ActivityKey(packageName, destinationName, activity.getName()), activity);
+        if (activity.getId() != 0) {
+            activitiesById.putIfAbsent(activity.getId(), activity);
+        }
+        attachToLedger(activity);
+        availabilityIndex.register(activity);
+    }
+
+    private void attachToLedger(Activity activity) {
+        if (capacityLedger != null && activity.getId() > 0 && !activity.getSeatInventory().isDurable()) {
+            activity.setSeatInventory(capacityLedger.inventoryFor(activity.getId(), activity.getCapacity()));
+        }
+    }
+
+    /**
+     * Selling out is noticed when a reservation fails, but seats handed back by another process are
+     * not; re-read every activity once the ledger reports any restock since the last look.
+     */
+    private void syncSharedAvailability() {
+        if (capacityLedger == null) {
+            return;
+        }
+        int restockCount = capacityLedger.getRestockCount();
+        if (restockCount != seenRestockCount) {
+            seenRestockCount = restockCount;
+            availabilityIndex.refreshAll();
+        }
+    }
+
+    private record DestinationKey(String packageName, String destinationName) {
+    }
+
+    private record ActivityKey(String packageName, String destinationName, String activityName) {
+    }
+}
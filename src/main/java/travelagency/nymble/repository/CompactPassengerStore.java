@@ -0,0 +1,266 @@
+package travelagency.nymble.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Money;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.PassengerTier;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Columnar store for very large passenger rosters.
+ * <p>
+ * Instead of one {@link Passenger} object per passenger with its own strings, boxed state and activity
+ * list, the passenger number, balance in minor units, tier code and interned name and type of every
+ * passenger live in primitive column arrays. Each passenger is represented by a flyweight
+ * {@link Passenger} subclass holding only its row number, which reads and writes the columns, so the
+ * rest of the application uses it like any other passenger. Names and passenger types repeated across
+ * passengers are stored once, and passengers without sign-ups hold no activity list at all.
+ * <p>
+ * Columns are split into fixed-size pages that never move once allocated, so a balance update can
+ * never be lost to a concurrent resize. Appends are serialized; reads and updates of a passenger's
+ * columns follow the same locking as a regular {@link Passenger}'s fields.
+ * <p>
+ * Enabled with {@code nymble.passengers.compact=true}, in which case the catalog is loaded into it.
+ */
+@Component
+@ConditionalOnProperty(name = "nymble.passengers.compact", havingValue = "true")
+public class CompactPassengerStore {
+    private static final int PAGE_SHIFT = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final byte UNKNOWN_TIER = -1;
+    private static final PassengerTier[] TIERS = PassengerTier.values();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private volatile String[] strings = new String[64];
+    private int stringCount;
+    private volatile Pages pages = new Pages(0);
+    private volatile int size;
+
+    /**
+     * Adds a passenger to the store.
+     *
+     * @param name            The name of the passenger.
+     * @param passengerNumber The passenger number.
+     * @param balance         The balance of the passenger.
+     * @param passengerType   The type of the passenger.
+     * @return The passenger, backed by the store.
+     */
+    public Passenger add(String name, int passengerNumber, double balance, String passengerType) {
+        appendLock.lock();
+        try {
+            int row = size;
+            int page = row >>> PAGE_SHIFT;
+            Pages current = pages;
+            if (page == current.numbers.length) {
+                current = current.withPage();
+                pages = current;
+            }
+            int slot = row & PAGE_MASK;
+            current.numbers[page][slot] = passengerNumber;
+            current.balances[page][slot] = Money.toMinorUnits(balance);
+            PassengerTier tier = PassengerTier.fromPassengerType(passengerType);
+            current.tiers[page][slot] = tier != null ? (byte) tier.ordinal() : UNKNOWN_TIER;
+            current.names[page][slot] = intern(name);
+            current.types[page][slot] = intern(passengerType);
+            size = row + 1;
+            return new StoredPassenger(row);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a copy of a passenger to the store, without its sign-ups.
+     *
+     * @param passenger The passenger to copy.
+     * @return The passenger, backed by the store.
+     */
+    public Passenger add(Passenger passenger) {
+        return add(passenger.getName(), passenger.getPassengerNumber(), passenger.getBalance(), passenger.getPassengerType());
+    }
+
+    /**
+     * Gets the number of passengers in the store.
+     *
+     * @return The number of passengers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct names and passenger types in the store.
+     *
+     * @return The number of interned strings.
+     */
+    public int getInternedStringCount() {
+        appendLock.lock();
+        try {
+            return stringCount;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        String[] current = strings;
+        if (stringCount == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[stringCount] = value;
+        strings = current;
+        stringIds.put(value, stringCount);
+        return stringCount++;
+    }
+
+    private String string(int id) {
+        return id >= 0 ? strings[id] : null;
+    }
+
+    /**
+     * Directory of the column pages. Growing the store copies the directory but shares the pages.
+     */
+    private static final class Pages {
+        private final int[][] numbers;
+        private final long[][] balances;
+        private final byte[][] tiers;
+        private final int[][] names;
+        private final int[][] types;
+        private final Activity[][][] activities;
+
+        private Pages(int pageCount) {
+            this(new int[pageCount][], new long[pageCount][], new byte[pageCount][], new int[pageCount][],
+                    new int[pageCount][], new Activity[pageCount][][]);
+        }
+
+        private Pages(int[][] numbers, long[][] balances, byte[][] tiers, int[][] names, int[][] types,
+                      Activity[][][] activities) {
+            this.numbers = numbers;
+            this.balances = balances;
+            this.tiers = tiers;
+            this.names = names;
+            this.types = types;
+            this.activities = activities;
+        }
+
+        private Pages withPage() {
+            int page = numbers.length;
+            Pages grown = new Pages(Arrays.copyOf(numbers, page + 1), Arrays.copyOf(balances, page + 1),
+                    Arrays.copyOf(tiers, page + 1), Arrays.copyOf(names, page + 1), Arrays.copyOf(types, page + 1),
+                    Arrays.copyOf(activities, page + 1));
+            grown.numbers[page] = new int[PAGE_SIZE];
+            grown.balances[page] = new long[PAGE_SIZE];
+            grown.tiers[page] = new byte[PAGE_SIZE];
+            grown.names[page] = new int[PAGE_SIZE];
+            grown.types[page] = new int[PAGE_SIZE];
+            grown.activities[page] = new Activity[PAGE_SIZE][];
+            return grown;
+        }
+    }
+
+    /**
+     * Flyweight passenger reading and writing its row of the store's columns. The activities a
+     * passenger signed up for are kept as an array that is replaced on every change, and
+     * {@link #getActivities()} returns an immutable view of the current one. As with a regular
+     * passenger, the row is only changed and read under the passenger's sign-up stripe; the columns
+     * are plain arrays, so an unlocked reader may see a stale row.
+     */
+    private final class StoredPassenger extends Passenger {
+        private final int page;
+        private final int slot;
+
+        private StoredPassenger(int row) {
+            this.page = row >>> PAGE_SHIFT;
+            this.slot = row & PAGE_MASK;
+        }
+
+        @Override
+        public String getName() {
+            return string(pages.names[page][slot]);
+        }
+
+        @Override
+        public int getPassengerNumber() {
+            return pages.numbers[page][slot];
+        }
+
+        @Override
+        public String getPassengerType() {
+            return string(pages.types[page][slot]);
+        }
+
+        @Override
+        public PassengerTier getTier() {
+            byte tier = pages.tiers[page][slot];
+            return tier != UNKNOWN_TIER ? TIERS[tier] : null;
+        }
+
+        @Override
+        public long getBalanceMinorUnits() {
+            return pages.balances[page][slot];
+        }
+
+        @Override
+        public void debitMinorUnits(long amount) {
+            pages.balances[page][slot] -= amount;
+        }
+
+        @Override
+        public void creditMinorUnits(long amount) {
+            pages.balances[page][slot] += amount;
+        }
+
+        @Override
+        public List<Activity> getActivities() {
+            Activity[] activities = pages.activities[page][slot];
+            return activities != null ? List.of(activities) : List.of();
+        }
+
+        @Override
+        public void addActivity(Activity activity) {
+            Activity[][] column = pages.activities[page];
+            Activity[] activities = column[slot];
+            if (activities == null) {
+                column[slot] = new Activity[]{activity};
+                return;
+            }
+            Activity[] updated = Arrays.copyOf(activities, activities.length + 1);
+            updated[activities.length] = activity;
+            column[slot] = updated;
+        }
+
+        @Override
+        public void removeActivity(Activity activity) {
+            Activity[][] column = pages.activities[page];
+            Activity[] activities = column[slot];
+            if (activities == null) {
+                return;
+            }
+            for (int i = 0; i < activities.length; i++) {
+                if (activities[i] == activity) {
+                    Activity[] updated = new Activity[activities.length - 1];
+                    System.arraycopy(activities, 0, updated, 0, i);
+                    System.arraycopy(activities, i + 1, updated, i, updated.length - i);
+                    column[slot] = updated.length > 0 ? updated : null;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package travelagency.nymble.repository;
+
+import travelagency.nymble.model.Activity;
+
+/**
+ * Activity together with its position in the cost-sorted availability index. The (cost, rank) pair
+ * is unique and can be handed back as a keyset pagination cursor.
+ *
+ * @param activity The activity.
+ * @param cost     The cost of the activity.
+ * @param rank     The tie-breaker among activities of the same cost.
+ */
+public record RankedActivity(Activity activity, double cost, long rank) {
+}
@@ -1,23 +1,34 @@
 package travelagency.nymble.repository;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import travelagency.nymble.model.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Repository class for managing and accessing travel packages.
+ * The packages live in a {@link CatalogStore} shared with the service layer.
  */
 @Repository
 public class TravelPackageRepository {
-    private List<TravelPackage> travelPackages;
+    private final CatalogStore catalogStore;
 
     /**
-     * Constructs a TravelPackageRepository object.
+     * Constructs a TravelPackageRepository object backed by its own catalog store.
      */
     public TravelPackageRepository() {
-        this.travelPackages = new ArrayList<>();
+        this(new CatalogStore());
+    }
+
+    /**
+     * Constructs a TravelPackageRepository object backed by the given catalog store.
+     *
+     * @param catalogStore The catalog store shared with the service layer.
+     */
+    @Autowired
+    public TravelPackageRepository(CatalogStore catalogStore) {
+        this.catalogStore = catalogStore;
     }
 
     /**
@@ -26,7 +37,7 @@ public class TravelPackageRepository {
      * @param travelPackage The travel package to add.
      */
     public void addTravelPackage(TravelPackage travelPackage) {
-        travelPackages.add(travelPackage);
+        catalogStore.addTravelPackage(travelPackage);
     }
 
     /**
@@ -35,7 +46,7 @@ public class TravelPackageRepository {
      * @return The list of travel packages.
      */
     public List<TravelPackage> getTravelPackages() {
-        return travelPackages;
+        return catalogStore.getTravelPackages();
     }
 
     /**
@@ -45,10 +56,7 @@ public class TravelPackageRepository {
      * @param destination    The destination to add.
      */
     public void addDestinationToTravelPackage(String packageName, Destination destination) {
-        TravelPackage travelPackage = findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            travelPackage.addDestination(destination);
-        }
+        catalogStore.addDestination(packageName, destination);
     }
 
     /**
@@ -59,14 +67,7 @@ public class TravelPackageRepository {
      * @param activity         The activity to add.
      */
     public void addActivityToDestination(String packageName, String destinationName, Activity activity) {
-        TravelPackage travelPackage = findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            Destination destination = travelPackage.findDestinationByName(destinationName);
-            if (destination != null) {
-                destination.addActivity(activity);
-                activity.setDestination(destination);
-            }
-        }
+        catalogStore.addActivity(packageName, destinationName, activity);
     }
 
     /**
@@ -76,10 +77,7 @@ public class TravelPackageRepository {
      * @param passenger    The passenger to add.
      */
     public void addPassengerToTravelPackage(String packageName, Passenger passenger) {
-        TravelPackage travelPackage = findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            travelPackage.addPassenger(passenger);
-        }
+        catalogStore.addPassenger(packageName, passenger);
     }
 
     /**
@@ -89,11 +87,6 @@ public class TravelPackageRepository {
      * @return The found travel package, or null if not found.
      */
     public TravelPackage findTravelPackageByName(String packageName) {
-        for (TravelPackage travelPackage : travelPackages) {
-            if (travelPackage.getName().equals(packageName)) {
-                return travelPackage;
-            }
-        }
-        return null;
+        return catalogStore.findTravelPackageByName(packageName);
     }
 }
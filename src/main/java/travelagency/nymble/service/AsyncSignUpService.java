@@ -0,0 +1,174 @@
+package travelagency.nymble.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import travelagency.nymble.dto.SignUpRequest;
+import travelagency.nymble.dto.SignUpResult;
+import travelagency.nymble.dto.SignUpTicketResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accepts sign-ups into a bounded queue and processes them on a dedicated worker pool.
+ * <p>
+ * Each accepted sign-up gets a ticket that clients poll, optionally waiting for the result. When the
+ * queue is full new sign-ups are refused straight away rather than queued, which keeps the wait of
+ * accepted sign-ups bounded. Completed tickets are kept for a limited time and then forgotten.
+ */
+@Service
+public class AsyncSignUpService {
+    private final TravelPackageService travelPackageService;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final long resultTtlNanos;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sign-up-ticket-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for AsyncSignUpService.
+     *
+     * @param travelPackageService The service performing the sign-ups.
+     * @param workerCount          The number of worker threads.
+     * @param queueCapacity        The maximum number of sign-ups waiting for a worker.
+     * @param resultTtlSeconds     How long a completed ticket can still be polled, in seconds.
+     */
+    @Autowired
+    public AsyncSignUpService(
+            TravelPackageService travelPackageService,
+            @Value("${nymble.async-sign-up.workers:8}") int workerCount,
+            @Value("${nymble.async-sign-up.queue-capacity:1000}") int queueCapacity,
+            @Value("${nymble.async-sign-up.result-ttl-seconds:300}") long resultTtlSeconds
+    ) {
+        this.travelPackageService = travelPackageService;
+        this.resultTtlNanos = TimeUnit.SECONDS.toNanos(resultTtlSeconds);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "sign-up-worker-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        long sweepSeconds = Math.max(1, resultTtlSeconds / 2);
+        sweeper.scheduleWithFixedDelay(this::forgetExpiredTickets, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops accepting sign-ups and lets the workers finish the queued ones.
+     *
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sweeper.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a sign-up.
+     *
+     * @param request The sign-up to perform.
+     * @return The ticket ID to poll for the result, or null if the queue is full.
+     */
+    public String submit(SignUpRequest request) {
+        String ticketId = UUID.randomUUID().toString();
+        Ticket ticket = new Ticket(new CompletableFuture<>());
+        tickets.put(ticketId, ticket);
+        try {
+            workers.execute(() -> process(request, ticket));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticketId);
+            return null;
+        }
+        return ticketId;
+    }
+
+    /**
+     * Gets the state of a ticket, waiting up to the given time for it to complete.
+     *
+     * @param ticketId   The ticket ID returned by {@link #submit}.
+     * @param waitMillis The longest time to wait for the result, in milliseconds; 0 returns immediately.
+     * @return A future completing with the ticket state when the result is ready or the wait is over,
+     * or completing with null if the ticket is unknown or expired.
+     */
+    public CompletableFuture<SignUpTicketResponse> getTicket(String ticketId, long waitMillis) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SignUpTicketResponse pending = new SignUpTicketResponse(ticketId, false, null);
+        CompletableFuture<SignUpTicketResponse> response = ticket.result()
+                .thenApply(result -> new SignUpTicketResponse(ticketId, true, result));
+        if (waitMillis <= 0) {
+            return CompletableFuture.completedFuture(response.getNow(pending));
+        }
+        return response.completeOnTimeout(pending, waitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Estimates how long a refused client should wait before retrying: the time the workers need to
+     * drain a full queue at their recent pace.
+     *
+     * @return The suggested delay in whole seconds, at least 1.
+     */
+    public long getRetryAfterSeconds() {
+        long count = processed.sum();
+        if (count == 0) {
+            return 1;
+        }
+        double meanNanos = (double) processingNanos.sum() / count;
+        int backlog = workers.getQueue().size() + workers.getQueue().remainingCapacity();
+        double drainNanos = backlog * meanNanos / workers.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(drainNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    private void process(SignUpRequest request, Ticket ticket) {
+        long start = System.nanoTime();
+        SignUpResult result;
+        try {
+            result = travelPackageService.signUpPassengersForActivities(List.of(request)).get(0);
+        } catch (RuntimeException e) {
+            result = SignUpResult.of(request, SignUpStatus.FAILED, e.getMessage());
+        }
+        long end = System.nanoTime();
+        processingNanos.add(end - start);
+        processed.increment();
+        ticket.completedAt = end;
+        ticket.result().complete(result);
+    }
+
+    private void forgetExpiredTickets() {
+        long now = System.nanoTime();
+        tickets.values().removeIf(ticket -> ticket.result().isDone() && now - ticket.completedAt > resultTtlNanos);
+    }
+
+    private static final class Ticket {
+        private final CompletableFuture<SignUpResult> result;
+        private volatile long completedAt;
+
+        Ticket(CompletableFuture<SignUpResult> result) {
+            this.result = result;
+        }
+
+        CompletableFuture<SignUpResult> result() {
+            return result;
+        }
+    }
+}
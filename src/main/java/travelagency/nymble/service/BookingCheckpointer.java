@@ -0,0 +1,261 @@
+package travelagency.nymble.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.BookingJournal;
+import travelagency.nymble.repository.CatalogStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restores bookings from the {@link BookingJournal} at startup and keeps the journal short with
+ * periodic snapshots.
+ * <p>
+ * A snapshot records, for one journal sequence number, every passenger's balance and activities and
+ * every activity's remaining seats. It is captured while sign-ups are paused, so it matches the journal
+ * exactly. On restart the latest snapshot is applied on top of the hydrated catalog and only the
+ * journal records after it are replayed; segments covered by a snapshot are deleted.
+ */
+@Component
+@ConditionalOnProperty(name = "nymble.journal.enabled", havingValue = "true")
+@Order(2)
+public class BookingCheckpointer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BookingCheckpointer.class);
+    private static final int MAGIC = 0x4E594253; // "NYBS"
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT_FILE = "bookings.snapshot";
+
+    private final TravelPackageService travelPackageService;
+    private final CatalogStore catalogStore;
+    private final BookingJournal bookingJournal;
+    private final Path snapshotPath;
+    private final long snapshotIntervalSeconds;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean recovered;
+
+    /**
+     * Constructor for BookingCheckpointer.
+     *
+     * @param travelPackageService    The service whose sign-ups are paused while a snapshot is taken.
+     * @param catalogStore            The catalog the bookings are restored into.
+     * @param bookingJournal          The journal of sign-ups.
+     * @param directory               The directory holding the journal and the snapshot.
+     * @param snapshotIntervalSeconds The time between snapshots, in seconds.
+     */
+    @Autowired
+    public BookingCheckpointer(
+            TravelPackageService travelPackageService,
+            CatalogStore catalogStore,
+            BookingJournal bookingJournal,
+            @Value("${nymble.journal.directory:data/journal}") Path directory,
+            @Value("${nymble.journal.snapshot-interval-seconds:300}") long snapshotIntervalSeconds
+    ) {
+        this.travelPackageService = travelPackageService;
+        this.catalogStore = catalogStore;
+        this.bookingJournal = bookingJournal;
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (catalogStore.getTravelPackages().isEmpty()) {
+            logger.warn("Catalog is empty; skipping booking recovery and snapshots so existing ones are kept");
+            return;
+        }
+        recover();
+        snapshot();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic snapshots and takes a final one, so the next start has no journal to replay.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        if (recovered) {
+            snapshotQuietly();
+        }
+    }
+
+    /**
+     * Applies the latest snapshot and replays the journal records written after it.
+     *
+     * @throws IOException if the snapshot or the journal cannot be read.
+     */
+    public void recover() throws IOException {
+        long start = System.nanoTime();
+        long snapshotSequence = Files.exists(snapshotPath) ? applySnapshot() : 0;
+        long[] skipped = new long[1];
+        long replayed = bookingJournal.replay(snapshotSequence, (sequence, passengerNumber, activityId, price) -> {
+            Passenger passenger = catalogStore.findPassengerByNumber(passengerNumber);
+            Activity activity = catalogStore.findActivityById(activityId);
+            if (passenger == null || activity == null) {
+                skipped[0]++;
+                return;
+            }
+            if (!activity.getSeatInventory().isDurable()) {
+                activity.bookAvailability();
+            }
+            passenger.debit(price);
+            passenger.addActivity(activity);
+            activity.signUpPassenger(passenger);
+        });
+        recovered = true;
+        logger.info("Recovered bookings in {} ms: snapshot at sequence {}, {} journal records replayed, {} skipped",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), snapshotSequence, replayed, skipped[0]);
+    }
+
+    /**
+     * Writes a snapshot of the current bookings and deletes the journal segments it covers.
+     *
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void snapshot() throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer state = travelPackageService.callWithSignUpsPaused(this::captureState);
+        long sequence = state.getLong(8);
+
+        Path temporary = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (state.hasRemaining()) {
+                channel.write(state);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        bookingJournal.truncateThrough(sequence);
+        logger.info("Wrote booking snapshot at sequence {} ({} bytes) in {} ms",
+                sequence, state.capacity(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write booking snapshot: {}", e.getMessage());
+        }
+    }
+
+    // Runs with sign-ups paused: only copies the state, the file is written afterwards.
+    private ByteBuffer captureState() {
+        List<Passenger> passengers = new ArrayList<>();
+        List<Activity> activities = new ArrayList<>();
+        Set<Integer> seenPassengers = new HashSet<>();
+        int size = 4 + 4 + 8 + 4 + 4;
+        for (TravelPackage travelPackage : catalogStore.getTravelPackages()) {
+            for (Passenger passenger : travelPackage.getPassengers()) {
+                if (seenPassengers.add(passenger.getPassengerNumber())) {
+                    passengers.add(passenger);
+                    size += 4 + 8 + 4 + 4 * passenger.getActivities().size();
+                }
+            }
+            for (Destination destination : travelPackage.getDestinations()) {
+                for (Activity activity : destination.getActivities()) {
+                    if (activity.getId() != 0) {
+                        activities.add(activity);
+                        size += 4 + 4;
+                    }
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(bookingJournal.getLastSequence());
+        buffer.putInt(passengers.size());
+        for (Passenger passenger : passengers) {
+            buffer.putInt(passenger.getPassengerNumber()).putDouble(passenger.getBalance());
+            int countPosition = buffer.position();
+            buffer.putInt(0);
+            int count = 0;
+            for (Activity activity : passenger.getActivities()) {
+                if (activity.getId() != 0) {
+                    buffer.putInt(activity.getId());
+                    count++;
+                }
+            }
+            buffer.putInt(countPosition, count);
+        }
+        buffer.putInt(activities.size());
+        for (Activity activity : activities) {
+            buffer.putInt(activity.getId()).putInt(activity.getCapacity());
+        }
+        return buffer.flip();
+    }
+
+    private long applySnapshot() throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(snapshotPath + " is not a booking snapshot.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(snapshotPath + " has unsupported snapshot version " + version + ".");
+        }
+        long sequence = buffer.getLong();
+
+        int passengerCount = buffer.getInt();
+        for (int i = 0; i < passengerCount; i++) {
+            Passenger passenger = catalogStore.findPassengerByNumber(buffer.getInt());
+            double balance = buffer.getDouble();
+            int activityCount = buffer.getInt();
+            if (passenger == null) {
+                buffer.position(buffer.position() + 4 * activityCount);
+                continue;
+            }
+            passenger.credit(balance - passenger.getBalance());
+            for (int j = 0; j < activityCount; j++) {
+                Activity activity = catalogStore.findActivityById(buffer.getInt());
+                if (activity != null && !passenger.getActivities().contains(activity)) {
+                    passenger.addActivity(activity);
+                    activity.signUpPassenger(passenger);
+                }
+            }
+        }
+        int activityCount = buffer.getInt();
+        for (int i = 0; i < activityCount; i++) {
+            Activity activity = catalogStore.findActivityById(buffer.getInt());
+            int remaining = buffer.getInt();
+            // A durable inventory already holds the seats as of now, not as of the snapshot.
+            if (activity != null && !activity.getSeatInventory().isDurable()) {
+                activity.setCapacity(remaining);
+            }
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,21 @@
+package travelagency.nymble.service;
+
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Passenger;
+
+/**
+ * Callback notified of every successful sign-up made through {@link TravelPackageService}.
+ * <p>
+ * Listeners run on the thread that made the sign-up, after the sign-up locks have been released, so a
+ * slow listener delays only its own caller and never blocks other bookings.
+ */
+public interface BookingListener {
+    /**
+     * Called after a passenger has been charged and signed up for an activity.
+     *
+     * @param passenger The passenger that signed up.
+     * @param activity  The activity signed up for.
+     * @param price     The amount debited from the passenger's balance.
+     */
+    void onSignedUp(Passenger passenger, Activity activity, double price);
+}
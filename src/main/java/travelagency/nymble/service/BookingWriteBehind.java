@@ -0,0 +1,245 @@
+package travelagency.nymble.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.dao.ActivityDAO;
+import travelagency.nymble.dao.BookingDAO;
+import travelagency.nymble.dao.PassengerDAO;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Passenger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persists sign-ups to the database behind the in-memory catalog.
+ * <p>
+ * Each successful sign-up is queued as a mutation and a single writer thread flushes the queue with
+ * JDBC batch updates. A batch is sent as soon as it reaches the maximum batch size or the flush
+ * interval has passed since its first mutation, so batches grow with load while a quiet system still
+ * writes promptly. Debits and seat counts are summed per passenger row and per activity before being
+ * sent. A passenger number shared by several rows is not debited at all; its mutations are skipped and
+ * logged, as {@link BookingDAO#book(int, int, double)} refuses it.
+ * <p>
+ * The queue is bounded: when the database falls behind, booking threads block on enqueue instead of
+ * letting the backlog grow without limit. On shutdown the writer drains whatever is queued.
+ * <p>
+ * A batch the database rejects is retried a bounded number of times with a doubling backoff before it
+ * is given up and logged, so a brief outage or a lost deadlock does not drop sign-ups.
+ */
+@Component
+@ConditionalOnProperty(name = "nymble.write-behind.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingWriteBehind implements BookingListener {
+    private static final Logger logger = LoggerFactory.getLogger(BookingWriteBehind.class);
+
+    private final BookingDAO bookingDAO;
+    private final PassengerDAO passengerDAO;
+    private final ActivityDAO activityDAO;
+    private final BlockingQueue<BookingMutation> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final LongAdder flushedMutations = new LongAdder();
+    private final LongAdder failedMutations = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for BookingWriteBehind.
+     *
+     * @param bookingDAO      DAO the batches are written through.
+     * @param passengerDAO    DAO resolving passenger rows and whose cached passengers are invalidated after a flush.
+     * @param activityDAO     DAO whose cached activities are invalidated after a flush.
+     * @param queueCapacity   The maximum number of mutations waiting to be written.
+     * @param maxBatchSize    The maximum number of mutations written in one batch.
+     * @param flushIntervalMs The longest time a mutation waits for its batch to fill, in milliseconds.
+     * @param maxAttempts     The number of times a batch is sent before it is given up.
+     * @param retryBackoffMs  The wait before the first retry of a batch, in milliseconds; doubled for each further retry.
+     */
+    @Autowired
+    public BookingWriteBehind(
+            BookingDAO bookingDAO,
+            PassengerDAO passengerDAO,
+            ActivityDAO activityDAO,
+            @Value("${nymble.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${nymble.write-behind.max-batch-size:500}") int maxBatchSize,
+            @Value("${nymble.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${nymble.write-behind.max-attempts:5}") int maxAttempts,
+            @Value("${nymble.write-behind.retry-backoff-ms:100}") long retryBackoffMs
+    ) {
+        this.bookingDAO = bookingDAO;
+        this.passengerDAO = passengerDAO;
+        this.activityDAO = activityDAO;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.writer = new Thread(this::writeLoop, "booking-write-behind");
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Writes out everything still queued and stops the writer thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer to finish.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+        logger.info("Booking write-behind stopped: {} mutations written, {} failed",
+                flushedMutations.sum(), failedMutations.sum());
+    }
+
+    @Override
+    public void onSignedUp(Passenger passenger, Activity activity, double price) {
+        BookingMutation mutation = new BookingMutation(passenger.getPassengerNumber(), activity.getId(), price);
+        try {
+            queue.put(mutation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedMutations.increment();
+            logger.error("Interrupted while queueing sign-up of passenger {} for activity {}; it will not be persisted",
+                    mutation.passengerNumber(), mutation.activityId());
+        }
+    }
+
+    /**
+     * Gets the number of mutations waiting to be written.
+     *
+     * @return The current queue depth.
+     */
+    public int getPendingMutations() {
+        return queue.size();
+    }
+
+    private void writeLoop() {
+        List<BookingMutation> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                BookingMutation first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    BookingMutation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop; keep draining so queued bookings are not lost.
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<BookingMutation> batch) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return;
+            } catch (DataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    failedMutations.add(batch.size());
+                    logger.error("Failed to persist {} booking mutations after {} attempts: {}",
+                            batch.size(), attempt, e.getMessage());
+                    return;
+                }
+                logger.warn("Failed to persist {} booking mutations (attempt {} of {}), retrying in {} ms: {}",
+                        batch.size(), attempt, maxAttempts, backoffMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                // Only stop() ends the writer, and it still wants the batch written.
+            }
+            backoffMs *= 2;
+        }
+    }
+
+    private void write(List<BookingMutation> batch) {
+        // Passengers are debited and cached by row ID, which the in-memory model does not carry.
+        Set<Integer> passengerNumbers = new HashSet<>();
+        for (BookingMutation mutation : batch) {
+            passengerNumbers.add(mutation.passengerNumber());
+        }
+        Map<Integer, List<Integer>> rowIds = passengerDAO.findIdsByPassengerNumbers(passengerNumbers);
+
+        Map<Integer, Double> debits = new HashMap<>();
+        Map<Integer, Integer> seats = new HashMap<>();
+        List<int[]> signUps = new ArrayList<>(batch.size());
+        Set<Integer> ambiguous = new TreeSet<>();
+        int skipped = 0;
+        for (BookingMutation mutation : batch) {
+            List<Integer> ids = rowIds.getOrDefault(mutation.passengerNumber(), List.of());
+            if (ids.size() > 1) {
+                ambiguous.add(mutation.passengerNumber());
+                skipped++;
+                continue;
+            }
+            if (ids.size() == 1) {
+                debits.merge(ids.get(0), mutation.price(), Double::sum);
+            }
+            if (mutation.activityId() != 0) {
+                seats.merge(mutation.activityId(), 1, Integer::sum);
+                signUps.add(new int[]{mutation.passengerNumber(), mutation.activityId()});
+            }
+        }
+
+        // The batch is written in one transaction, so a failed attempt left nothing behind to undo.
+        bookingDAO.saveBookings(debits, seats, signUps);
+        flushedMutations.add(batch.size() - skipped);
+        if (skipped > 0) {
+            failedMutations.add(skipped);
+            logger.error("Skipped {} booking mutations of passenger numbers {}, which match several passenger rows",
+                    skipped, ambiguous);
+        }
+        for (Integer activityId : seats.keySet()) {
+            activityDAO.evict(activityId);
+        }
+        for (Integer passengerId : debits.keySet()) {
+            passengerDAO.evict(passengerId);
+        }
+    }
+
+    private record BookingMutation(int passengerNumber, int activityId, double price) {
+    }
+}
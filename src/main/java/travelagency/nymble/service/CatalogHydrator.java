@@ -0,0 +1,254 @@
+package travelagency.nymble.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.dao.ActivityDAO;
+import travelagency.nymble.dao.DestinationDAO;
+import travelagency.nymble.dao.PassengerDAO;
+import travelagency.nymble.dao.TravelPackageDAO;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.CompactPassengerStore;
+import travelagency.nymble.util.VirtualThreads;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Loads the whole catalog from the database into {@link TravelPackageService} at startup.
+ * <p>
+ * The travel package, destination, activity and passenger tables are streamed concurrently, one
+ * thread per table, and the object graph is then wired in a single pass over the loaded rows.
+ * Destinations and passengers are linked to packages through their {@code travel_package_id}
+ * column and activities to destinations through {@code destination_id}. The repository sees the
+ * same catalog because both share the {@link travelagency.nymble.repository.CatalogStore}.
+ * <p>
+ * When a {@link CatalogSnapshotService} snapshot file is present it is loaded instead, and the
+ * database is only queried if the snapshot is missing or unreadable. When a
+ * {@link CompactPassengerStore} is enabled, passengers are moved into it as they are loaded.
+ */
+@Component
+@Order(1)
+public class CatalogHydrator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogHydrator.class);
+
+    private final TravelPackageService travelPackageService;
+    private final TravelPackageDAO travelPackageDAO;
+    private final DestinationDAO destinationDAO;
+    private final ActivityDAO activityDAO;
+    private final PassengerDAO passengerDAO;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CompactPassengerStore compactPassengerStore;
+    private final boolean enabled;
+    private final boolean virtualThreads;
+
+    /**
+     * Constructor for CatalogHydrator that always loads from the database.
+     *
+     * @param travelPackageService The service to populate.
+     * @param travelPackageDAO     DAO for travel packages.
+     * @param destinationDAO       DAO for destinations.
+     * @param activityDAO          DAO for activities.
+     * @param passengerDAO         DAO for passengers.
+     * @param enabled              Whether to hydrate the catalog when the application starts.
+     */
+    public CatalogHydrator(
+            TravelPackageService travelPackageService,
+            TravelPackageDAO travelPackageDAO,
+            DestinationDAO destinationDAO,
+            ActivityDAO activityDAO,
+            PassengerDAO passengerDAO,
+            boolean enabled
+    ) {
+        this(travelPackageService, travelPackageDAO, destinationDAO, activityDAO, passengerDAO, null, (CompactPassengerStore) null, enabled, false);
+    }
+
+    /**
+     * Constructor for CatalogHydrator that prefers a local catalog snapshot over the database.
+     *
+     * @param travelPackageService   The service to populate.
+     * @param travelPackageDAO       DAO for travel packages.
+     * @param destinationDAO         DAO for destinations.
+     * @param activityDAO            DAO for activities.
+     * @param passengerDAO           DAO for passengers.
+     * @param catalogSnapshotService The snapshot loaded instead of the database when present, or null.
+     * @param compactPassengerStore  The store passengers are moved into, or null to keep them as loaded.
+     * @param enabled                Whether to hydrate the catalog when the application starts.
+     * @param virtualThreads         Whether to run the table loads on virtual threads.
+     */
+    public CatalogHydrator(
+            TravelPackageService travelPackageService,
+            TravelPackageDAO travelPackageDAO,
+            DestinationDAO destinationDAO,
+            ActivityDAO activityDAO,
+            PassengerDAO passengerDAO,
+            CatalogSnapshotService catalogSnapshotService,
+            CompactPassengerStore compactPassengerStore,
+            boolean enabled,
+            boolean virtualThreads
+    ) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.compactPassengerStore = compactPassengerStore;
+        this.virtualThreads = virtualThreads;
+        this.travelPackageService = travelPackageService;
+        this.travelPackageDAO = travelPackageDAO;
+        this.destinationDAO = destinationDAO;
+        this.activityDAO = activityDAO;
+        this.passengerDAO = passengerDAO;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Constructor for CatalogHydrator with the snapshot service and compact passenger store found in the
+     * application context.
+     *
+     * @param travelPackageService   The service to populate.
+     * @param travelPackageDAO       DAO for travel packages.
+     * @param destinationDAO         DAO for destinations.
+     * @param activityDAO            DAO for activities.
+     * @param passengerDAO           DAO for passengers.
+     * @param catalogSnapshotService The snapshot loaded instead of the database when present.
+     * @param compactPassengerStore  The compact passenger store bean, if enabled.
+     * @param enabled                Whether to hydrate the catalog when the application starts.
+     * @param virtualThreads         Whether to run the table loads on virtual threads.
+     */
+    @Autowired
+    public CatalogHydrator(
+            TravelPackageService travelPackageService,
+            TravelPackageDAO travelPackageDAO,
+            DestinationDAO destinationDAO,
+            ActivityDAO activityDAO,
+            PassengerDAO passengerDAO,
+            CatalogSnapshotService catalogSnapshotService,
+            ObjectProvider<CompactPassengerStore> compactPassengerStore,
+            @Value("${nymble.hydration.enabled:true}") boolean enabled,
+            @Value("${nymble.virtual-threads.enabled:false}") boolean virtualThreads
+    ) {
+        this(travelPackageService, travelPackageDAO, destinationDAO, activityDAO, passengerDAO, catalogSnapshotService,
+                compactPassengerStore.getIfAvailable(), enabled, virtualThreads);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        if (catalogSnapshotService != null) {
+            try {
+                if (catalogSnapshotService.loadSnapshot() != null) {
+                    return;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not load catalog snapshot, hydrating from the database instead: {}", e.getMessage());
+            }
+        }
+        try {
+            hydrate();
+        } catch (DataAccessException e) {
+            logger.error("Catalog hydration failed, starting with an empty catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the four catalog tables concurrently and wires them into the service.
+     *
+     * @return The row counts and timings of the run.
+     */
+    public HydrationReport hydrate() {
+        long start = System.nanoTime();
+        List<TravelPackage> travelPackages = new ArrayList<>();
+        List<Row<Destination>> destinations = new ArrayList<>();
+        List<Row<Activity>> activities = new ArrayList<>();
+        List<Row<Passenger>> passengers = new ArrayList<>();
+
+        ExecutorService executor = VirtualThreads.newExecutor(virtualThreads, 4);
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> travelPackageDAO.streamAll((Consumer<TravelPackage>) travelPackages::add), executor),
+                    CompletableFuture.runAsync(() -> destinationDAO.streamAll((destination, packageId) -> destinations.add(new Row<>(destination, packageId))), executor),
+                    CompletableFuture.runAsync(() -> activityDAO.streamAll((activity, destinationId) -> activities.add(new Row<>(activity, destinationId))), executor),
+                    CompletableFuture.runAsync(() -> passengerDAO.streamAll((passenger, packageId) -> passengers.add(new Row<>(passenger, packageId))), executor)
+            ).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+        long loaded = System.nanoTime();
+
+        int orphans = 0;
+        Map<Integer, TravelPackage> travelPackagesById = new HashMap<>();
+        for (TravelPackage travelPackage : travelPackages) {
+            travelPackageService.createTravelPackage(travelPackage);
+            travelPackagesById.put(travelPackage.getId(), travelPackage);
+        }
+
+        Map<Integer, Row<Destination>> destinationsById = new HashMap<>();
+        for (Row<Destination> row : destinations) {
+            TravelPackage travelPackage = travelPackagesById.get(row.parentId());
+            if (travelPackage == null) {
+                orphans++;
+                continue;
+            }
+            travelPackageService.addDestinationToTravelPackage(travelPackage.getName(), row.entity());
+            destinationsById.put(row.entity().getId(), new Row<>(row.entity(), travelPackage.getId()));
+        }
+
+        for (Row<Activity> row : activities) {
+            Row<Destination> destination = destinationsById.get(row.parentId());
+            if (destination == null) {
+                orphans++;
+                continue;
+            }
+            String packageName = travelPackagesById.get(destination.parentId()).getName();
+            travelPackageService.addActivityToDestination(packageName, destination.entity().getName(), row.entity());
+        }
+
+        // Passenger lists are copy-on-write, so each package gets its passengers in a single add.
+        Map<TravelPackage, List<Passenger>> passengersByPackage = new LinkedHashMap<>();
+        for (Row<Passenger> row : passengers) {
+            TravelPackage travelPackage = travelPackagesById.get(row.parentId());
+            if (travelPackage == null) {
+                orphans++;
+                continue;
+            }
+            Passenger passenger = compactPassengerStore != null ? compactPassengerStore.add(row.entity()) : row.entity();
+            passengersByPackage.computeIfAbsent(travelPackage, key -> new ArrayList<>()).add(passenger);
+        }
+        passengersByPackage.forEach((travelPackage, packagePassengers) ->
+                travelPackageService.addPassengersToTravelPackage(travelPackage.getName(), packagePassengers));
+        long end = System.nanoTime();
+
+        HydrationReport report = new HydrationReport(travelPackages.size(), destinations.size(), activities.size(),
+                passengers.size(), orphans, TimeUnit.NANOSECONDS.toMillis(loaded - start), TimeUnit.NANOSECONDS.toMillis(end - start));
+        logger.info("Hydrated catalog in {} ms ({} ms loading): {} travel packages, {} destinations, {} activities, {} passengers, {} orphaned rows skipped",
+                report.totalMillis(), report.loadMillis(), report.travelPackages(), report.destinations(),
+                report.activities(), report.passengers(), report.orphans());
+        return report;
+    }
+
+    private record Row<T>(T entity, int parentId) {
+    }
+}
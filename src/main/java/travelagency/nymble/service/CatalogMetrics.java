@@ -0,0 +1,105 @@
+package travelagency.nymble.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.CatalogStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gauges describing how full the catalog is: the seats left on each activity and the passengers on
+ * each travel package.
+ * <p>
+ * Gauge values are read from the catalog only when the registry is scraped, so bookings pay nothing
+ * for them. The set of activities and packages is re-read once the application is ready and then
+ * periodically, to pick up catalog additions.
+ */
+@Component
+public class CatalogMetrics {
+    private final CatalogStore catalogStore;
+    private final MultiGauge remainingSeats;
+    private final MultiGauge packagePassengers;
+    private final MultiGauge packageCapacity;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for CatalogMetrics.
+     *
+     * @param catalogStore           The catalog the gauges read from.
+     * @param meterRegistry          The registry the gauges are registered in.
+     * @param refreshIntervalSeconds The time between re-reads of the catalog's activities and packages.
+     */
+    @Autowired
+    public CatalogMetrics(
+            CatalogStore catalogStore,
+            MeterRegistry meterRegistry,
+            @Value("${nymble.metrics.catalog-refresh-seconds:30}") long refreshIntervalSeconds
+    ) {
+        this.catalogStore = catalogStore;
+        this.remainingSeats = MultiGauge.builder("nymble.activity.seats.remaining")
+                .description("Seats left on an activity")
+                .register(meterRegistry);
+        this.packagePassengers = MultiGauge.builder("nymble.package.passengers")
+                .description("Passengers on a travel package")
+                .register(meterRegistry);
+        this.packageCapacity = MultiGauge.builder("nymble.package.capacity")
+                .description("Passenger capacity of a travel package")
+                .register(meterRegistry);
+        Gauge.builder("nymble.activities.available", catalogStore, store -> store.getAvailableActivities().size())
+                .description("Activities with seats left")
+                .register(meterRegistry);
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic refresh.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Registers a gauge for every activity and travel package currently in the catalog and drops the
+     * gauges of those no longer in it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        List<MultiGauge.Row<?>> seatRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> passengerRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> capacityRows = new ArrayList<>();
+        for (TravelPackage travelPackage : catalogStore.getTravelPackages()) {
+            Tags packageTags = Tags.of("package", travelPackage.getName());
+            passengerRows.add(MultiGauge.Row.of(packageTags, travelPackage, tp -> tp.getPassengers().size()));
+            capacityRows.add(MultiGauge.Row.of(packageTags, travelPackage.getPassengerCapacity()));
+            for (Destination destination : travelPackage.getDestinations()) {
+                for (Activity activity : destination.getActivities()) {
+                    Tags activityTags = packageTags.and("destination", destination.getName(), "activity", activity.getName());
+                    seatRows.add(MultiGauge.Row.of(activityTags, activity, a -> a.getSeatInventory().remaining()));
+                }
+            }
+        }
+        remainingSeats.register(seatRows, true);
+        packagePassengers.register(passengerRows, true);
+        packageCapacity.register(capacityRows, true);
+    }
+}
@@ -0,0 +1,149 @@
+package travelagency.nymble.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import travelagency.nymble.dto.CatalogSnapshotResponse;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.CatalogSnapshot;
+import travelagency.nymble.repository.CompactPassengerStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the catalog to a {@link CatalogSnapshot} file and loads it back at startup.
+ * <p>
+ * Snapshots are written on demand and, when an interval is configured, on a schedule. The catalog is
+ * copied while sign-ups are paused and written to disk after they resume.
+ */
+@Service
+public class CatalogSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final TravelPackageService travelPackageService;
+    private final CompactPassengerStore compactPassengerStore;
+    private final Path snapshotPath;
+    private final boolean loadOnStartup;
+    private final long intervalSeconds;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for CatalogSnapshotService.
+     *
+     * @param travelPackageService  The service holding the catalog.
+     * @param compactPassengerStore The store loaded passengers are kept in, if enabled.
+     * @param snapshotPath          The snapshot file.
+     * @param loadOnStartup         Whether startup should load the snapshot instead of querying the database.
+     * @param intervalSeconds       The time between scheduled snapshots in seconds, or 0 to only write on demand.
+     */
+    @Autowired
+    public CatalogSnapshotService(
+            TravelPackageService travelPackageService,
+            ObjectProvider<CompactPassengerStore> compactPassengerStore,
+            @Value("${nymble.catalog-snapshot.path:data/catalog.snapshot}") Path snapshotPath,
+            @Value("${nymble.catalog-snapshot.load-on-startup:true}") boolean loadOnStartup,
+            @Value("${nymble.catalog-snapshot.interval-seconds:0}") long intervalSeconds
+    ) {
+        this.travelPackageService = travelPackageService;
+        this.compactPassengerStore = compactPassengerStore.getIfAvailable();
+        this.snapshotPath = snapshotPath;
+        this.loadOnStartup = loadOnStartup;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Starts the scheduled snapshots, if an interval is configured.
+     */
+    @PostConstruct
+    public void start() {
+        if (intervalSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(this::writeSnapshotQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the scheduled snapshots.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Writes a snapshot of the current catalog.
+     *
+     * @return A summary of the snapshot, or null if the catalog is empty and nothing was written.
+     * @throws IOException if the snapshot file cannot be written.
+     */
+    public CatalogSnapshotResponse writeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        CatalogSnapshot snapshot = travelPackageService.callWithSignUpsPaused(
+                () -> CatalogSnapshot.capture(travelPackageService.getTravelPackages()));
+        if (snapshot.getTravelPackageCount() == 0) {
+            return null;
+        }
+        long size = snapshot.writeTo(snapshotPath);
+        CatalogSnapshotResponse response = new CatalogSnapshotResponse(snapshotPath.toString(), size,
+                snapshot.getTravelPackageCount(), snapshot.getDestinationCount(), snapshot.getActivityCount(),
+                snapshot.getPassengerCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Wrote catalog snapshot {} ({} bytes) in {} ms", response.path(), response.sizeBytes(), response.elapsedMillis());
+        return response;
+    }
+
+    /**
+     * Loads the snapshot file into the catalog, if loading at startup is enabled and the file exists.
+     *
+     * @return The row counts and timings of the load, or null if no snapshot was loaded.
+     * @throws IOException if the snapshot file cannot be read or is corrupt.
+     */
+    public HydrationReport loadSnapshot() throws IOException {
+        if (!loadOnStartup || !Files.exists(snapshotPath)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        CatalogSnapshot snapshot = CatalogSnapshot.readFrom(snapshotPath);
+        List<TravelPackage> travelPackages;
+        try {
+            travelPackages = snapshot.toTravelPackages(compactPassengerStore);
+        } catch (RuntimeException e) {
+            // Nothing has reached the catalog yet, so the caller can still fall back to the database.
+            throw new IOException(snapshotPath + " does not describe a consistent catalog: " + e, e);
+        }
+        long loaded = System.nanoTime();
+        for (TravelPackage travelPackage : travelPackages) {
+            travelPackageService.createTravelPackage(travelPackage);
+        }
+        long end = System.nanoTime();
+
+        HydrationReport report = new HydrationReport(snapshot.getTravelPackageCount(), snapshot.getDestinationCount(),
+                snapshot.getActivityCount(), snapshot.getPassengerCount(), 0,
+                TimeUnit.NANOSECONDS.toMillis(loaded - start), TimeUnit.NANOSECONDS.toMillis(end - start));
+        logger.info("Loaded catalog snapshot {} in {} ms ({} ms reading): {} travel packages, {} destinations, {} activities, {} passengers",
+                snapshotPath, report.totalMillis(), report.loadMillis(), report.travelPackages(),
+                report.destinations(), report.activities(), report.passengers());
+        return report;
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write catalog snapshot: {}", e.getMessage());
+        }
+    }
+}
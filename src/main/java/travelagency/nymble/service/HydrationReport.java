@@ -0,0 +1,23 @@
+package travelagency.nymble.service;
+
+/**
+ * Summary of a catalog hydration run.
+ *
+ * @param travelPackages The number of travel packages loaded.
+ * @param destinations   The number of destinations loaded.
+ * @param activities     The number of activities loaded.
+ * @param passengers     The number of passengers loaded.
+ * @param orphans        The number of rows skipped because their parent row was missing.
+ * @param loadMillis     The time spent reading the four tables concurrently, in milliseconds.
+ * @param totalMillis    The total time including wiring the object graph, in milliseconds.
+ */
+public record HydrationReport(
+        int travelPackages,
+        int destinations,
+        int activities,
+        int passengers,
+        int orphans,
+        long loadMillis,
+        long totalMillis
+) {
+}
@@ -0,0 +1,169 @@
+package travelagency.nymble.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs requests carrying a client-chosen idempotency key at most once.
+ * <p>
+ * The first request with a key runs and its outcome is remembered; a retry with the same key gets
+ * that outcome back without running again, and a duplicate arriving while the first is still running
+ * waits for it instead of running alongside it. Outcomes the request itself caused, such as a sold-out
+ * activity, are remembered like results. Any other failure, errors included, forgets the key so the
+ * client can retry. A duplicate waits for the first request only for a bounded time, so a stuck request
+ * cannot pin every retry of it to a thread.
+ * <p>
+ * Keys are held in a bounded cache and expire a fixed time after they were first used. A key evicted
+ * early to make room is simply treated as new.
+ */
+@Service
+public class IdempotencyService {
+    /**
+     * Longest idempotency key accepted.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+    private final long waitTimeoutNanos;
+    private final Counter replays;
+
+    /**
+     * Constructor for IdempotencyService.
+     *
+     * @param maxKeys       The maximum number of keys remembered at once.
+     * @param ttlSeconds    How long a key is remembered after its first use, in seconds.
+     * @param waitTimeoutMs How long a duplicate waits for the first request with its key to finish, in milliseconds.
+     * @param meterRegistry The registry the replay counter is published to.
+     */
+    @Autowired
+    public IdempotencyService(
+            @Value("${nymble.idempotency.max-keys:100000}") long maxKeys,
+            @Value("${nymble.idempotency.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${nymble.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.waitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        this.replays = Counter.builder("nymble.idempotency.replays")
+                .description("Requests answered from an earlier request with the same idempotency key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs an action once per idempotency key.
+     *
+     * @param key     The idempotency key, or null to always run the action.
+     * @param request The request the key was sent with; a key may only be reused with an equal request.
+     * @param action  The action to run.
+     * @param <T>     The type of the action's result.
+     * @return The result of the action, from this call or the first one with the same key.
+     * @throws IdempotencyKeyConflictException   if the key was already used with a different request.
+     * @throws IdempotencyKeyInProgressException if the first request with the key did not finish in time.
+     */
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.request().equals(request)) {
+                throw new IdempotencyKeyConflictException(key);
+            }
+            replays.increment();
+            return cast(await(key, existing.result()));
+        }
+        try {
+            T result = action.get();
+            entry.result().complete(result);
+            return result;
+        } catch (Throwable e) {
+            if (!(e instanceof IllegalArgumentException || e instanceof IllegalStateException)) {
+                entries.asMap().remove(key, entry);
+            }
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of idempotency keys currently remembered.
+     *
+     * @return The approximate number of keys.
+     */
+    public long getKeyCount() {
+        return entries.estimatedSize();
+    }
+
+    private Object await(String key, CompletableFuture<Object> result) {
+        // A timed get rather than orTimeout, which would fail the shared result for every waiter.
+        try {
+            return result.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    private record Entry(Object request, CompletableFuture<Object> result) {
+    }
+
+    /**
+     * Thrown when an idempotency key is reused with a request different from the one it was first sent with.
+     */
+    public static class IdempotencyKeyConflictException extends RuntimeException {
+        /**
+         * Constructs an IdempotencyKeyConflictException object.
+         *
+         * @param key The reused idempotency key.
+         */
+        public IdempotencyKeyConflictException(String key) {
+            super("Idempotency key " + key + " was already used for a different request.");
+        }
+    }
+
+    /**
+     * Thrown when a request is retried while the first request with the same idempotency key is still running.
+     */
+    public static class IdempotencyKeyInProgressException extends RuntimeException {
+        /**
+         * Constructs an IdempotencyKeyInProgressException object.
+         *
+         * @param key The idempotency key still in use.
+         */
+        public IdempotencyKeyInProgressException(String key) {
+            super("A request with idempotency key " + key + " is still in progress.");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package travelagency.nymble.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Meters recorded on the booking path of {@link TravelPackageService}.
+ * <p>
+ * Every meter is registered once up front, so recording costs a counter or histogram update and never
+ * a registry lookup.
+ */
+final class SignUpMetrics {
+    private final Timer signUpTimer;
+    private final Timer bulkSignUpTimer;
+    private final Timer availableActivitiesTimer;
+    private final Map<SignUpStatus, Counter> outcomeCounters = new EnumMap<>(SignUpStatus.class);
+
+    SignUpMetrics(MeterRegistry meterRegistry) {
+        this.signUpTimer = Timer.builder("nymble.sign-up")
+                .description("Time to process a sign-up request")
+                .tag("mode", "single")
+                .register(meterRegistry);
+        this.bulkSignUpTimer = Timer.builder("nymble.sign-up")
+                .description("Time to process a sign-up request")
+                .tag("mode", "bulk")
+                .register(meterRegistry);
+        this.availableActivitiesTimer = Timer.builder("nymble.available-activities")
+                .description("Time to list the activities with seats left")
+                .register(meterRegistry);
+        for (SignUpStatus status : SignUpStatus.values()) {
+            outcomeCounters.put(status, Counter.builder("nymble.sign-ups")
+                    .description("Sign-ups attempted, by outcome")
+                    .tag("outcome", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    Timer signUpTimer() {
+        return signUpTimer;
+    }
+
+    Timer bulkSignUpTimer() {
+        return bulkSignUpTimer;
+    }
+
+    Timer availableActivitiesTimer() {
+        return availableActivitiesTimer;
+    }
+
+    void recordOutcome(SignUpStatus status) {
+        outcomeCounters.get(status).increment();
+    }
+}
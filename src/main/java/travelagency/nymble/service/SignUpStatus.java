@@ -0,0 +1,36 @@
+package travelagency.nymble.service;
+
+/**
+ * Outcome of signing a passenger up for an activity.
+ */
+public enum SignUpStatus {
+    /**
+     * The passenger was charged and holds a seat on the activity.
+     */
+    SIGNED_UP,
+
+    /**
+     * The activity had no seats left.
+     */
+    SOLD_OUT,
+
+    /**
+     * The passenger could not afford the activity.
+     */
+    INSUFFICIENT_BALANCE,
+
+    /**
+     * The passenger, destination or activity does not exist.
+     */
+    NOT_FOUND,
+
+    /**
+     * The passenger made too many sign-ups in a short time and should try again later.
+     */
+    RATE_LIMITED,
+
+    /**
+     * The sign-up was rejected for another reason, such as an unknown passenger type.
+     */
+    FAILED
+}
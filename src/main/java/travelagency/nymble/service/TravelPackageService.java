@@ -1,29 +1,137 @@
 package travelagency.nymble.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import travelagency.nymble.dto.ActivityResponse;
+import travelagency.nymble.dto.AffordableActivitiesResponse;
+import travelagency.nymble.dto.AffordableActivity;
+import travelagency.nymble.dto.ItineraryResponse;
+import travelagency.nymble.dto.PassengerDetailsResponse;
+import travelagency.nymble.dto.PassengerListResponse;
+import travelagency.nymble.dto.SignUpRequest;
+import travelagency.nymble.dto.SignUpResult;
 import travelagency.nymble.model.Activity;
 import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Money;
 import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.PricingEngine;
 import travelagency.nymble.model.TravelPackage;
-import travelagency.nymble.repository.TravelPackageRepository;
+import travelagency.nymble.repository.BookingJournal;
+import travelagency.nymble.repository.CatalogStore;
+import travelagency.nymble.repository.RankedActivity;
+import travelagency.nymble.util.StripedLock;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Service class for managing travel packages and providing related functionalities.
  */
 @Service
 public class TravelPackageService {
-    private List<TravelPackage> travelPackages;
-    private List<Passenger> passengers;
+    private static final int SIGN_UP_LOCK_STRIPES = 256;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CatalogStore catalogStore;
+    private final List<BookingListener> bookingListeners;
+    private final BookingJournal bookingJournal;
+    private final SignUpMetrics signUpMetrics;
+    private final PricingEngine pricingEngine;
+    private final StripedLock signUpLocks = new StripedLock(SIGN_UP_LOCK_STRIPES);
 
     /**
-     * Constructs a TravelPackageService object.
+     * Constructs a TravelPackageService object backed by its own catalog store.
      */
     public TravelPackageService() {
-        this.travelPackages = new ArrayList<>();
-        this.passengers = new ArrayList<>();
+        this(new CatalogStore());
+    }
+
+    /**
+     * Constructs a TravelPackageService object backed by the given catalog store.
+     *
+     * @param catalogStore The catalog store shared with the repository.
+     */
+    public TravelPackageService(CatalogStore catalogStore) {
+        this(catalogStore, List.of());
+    }
+
+    /**
+     * Constructs a TravelPackageService object backed by the given catalog store that reports
+     * successful sign-ups to the given listeners.
+     *
+     * @param catalogStore     The catalog store shared with the repository.
+     * @param bookingListeners The listeners notified of each successful sign-up.
+     */
+    public TravelPackageService(CatalogStore catalogStore, List<BookingListener> bookingListeners) {
+        this(catalogStore, bookingListeners, null);
+    }
+
+    /**
+     * Constructs a TravelPackageService object that journals every sign-up before reporting it.
+     *
+     * @param catalogStore     The catalog store shared with the repository.
+     * @param bookingListeners The listeners notified of each successful sign-up.
+     * @param bookingJournal   The journal sign-ups are appended to, or null to keep them in memory only.
+     */
+    public TravelPackageService(CatalogStore catalogStore, List<BookingListener> bookingListeners, BookingJournal bookingJournal) {
+        this(catalogStore, bookingListeners, bookingJournal, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Constructs a TravelPackageService object that records sign-up latencies and outcomes in the
+     * given registry.
+     *
+     * @param catalogStore     The catalog store shared with the repository.
+     * @param bookingListeners The listeners notified of each successful sign-up.
+     * @param bookingJournal   The journal sign-ups are appended to, or null to keep them in memory only.
+     * @param meterRegistry    The registry the booking metrics are registered in.
+     */
+    public TravelPackageService(CatalogStore catalogStore, List<BookingListener> bookingListeners, BookingJournal bookingJournal,
+                                MeterRegistry meterRegistry) {
+        this(catalogStore, bookingListeners, bookingJournal, meterRegistry, PricingEngine.DEFAULT);
+    }
+
+    /**
+     * Constructs a TravelPackageService object that prices sign-ups with the given pricing engine.
+     *
+     * @param catalogStore     The catalog store shared with the repository.
+     * @param bookingListeners The listeners notified of each successful sign-up.
+     * @param bookingJournal   The journal sign-ups are appended to, or null to keep them in memory only.
+     * @param meterRegistry    The registry the booking metrics are registered in.
+     * @param pricingEngine    The pricing engine quoting each sign-up.
+     */
+    public TravelPackageService(CatalogStore catalogStore, List<BookingListener> bookingListeners, BookingJournal bookingJournal,
+                                MeterRegistry meterRegistry, PricingEngine pricingEngine) {
+        this.catalogStore = catalogStore;
+        this.bookingListeners = List.copyOf(bookingListeners);
+        this.bookingJournal = bookingJournal;
+        this.signUpMetrics = new SignUpMetrics(meterRegistry);
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * Constructs a TravelPackageService object with the booking listeners, journal, meter registry and
+     * pricing engine found in the application context.
+     *
+     * @param catalogStore     The catalog store shared with the repository.
+     * @param bookingListeners The listener beans, if any.
+     * @param bookingJournal   The journal bean, if enabled.
+     * @param meterRegistry    The application's meter registry.
+     * @param pricingEngine    The configured pricing engine.
+     */
+    @Autowired
+    public TravelPackageService(CatalogStore catalogStore, ObjectProvider<BookingListener> bookingListeners,
+                                ObjectProvider<BookingJournal> bookingJournal, MeterRegistry meterRegistry,
+                                PricingEngine pricingEngine) {
+        this(catalogStore, bookingListeners.orderedStream().toList(), bookingJournal.getIfAvailable(), meterRegistry, pricingEngine);
     }
 
     /**
@@ -32,7 +140,7 @@ public class TravelPackageService {
      * @param travelPackage The travel package to create.
      */
     public void createTravelPackage(TravelPackage travelPackage) {
-        travelPackages.add(travelPackage);
+        catalogStore.addTravelPackage(travelPackage);
     }
 
     /**
@@ -41,7 +149,7 @@ public class TravelPackageService {
      * @return The list of travel packages.
      */
     public List<TravelPackage> getTravelPackages() {
-        return travelPackages;
+        return catalogStore.getTravelPackages();
     }
 
     /**
@@ -51,10 +159,7 @@ public class TravelPackageService {
      * @param destination The destination to add.
      */
     public void addDestinationToTravelPackage(String packageName, Destination destination) {
-        TravelPackage travelPackage = findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            travelPackage.addDestination(destination);
-        }
+        catalogStore.addDestination(packageName, destination);
     }
 
     /**
@@ -65,13 +170,7 @@ public class TravelPackageService {
      * @param activity        The activity to add.
      */
     public void addActivityToDestination(String packageName, String destinationName, Activity activity) {
-        TravelPackage travelPackage = findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            Destination destination = travelPackage.findDestinationByName(destinationName);
-            if (destination != null) {
-                destination.addActivity(activity);
-            }
-        }
+        catalogStore.addActivity(packageName, destinationName, activity);
     }
 
     /**
@@ -81,11 +180,118 @@ public class TravelPackageService {
      * @param passenger   The passenger to add.
      */
     public void addPassengerToTravelPackage(String packageName, Passenger passenger) {
+        catalogStore.addPassenger(packageName, passenger);
+    }
+
+    /**
+     * Adds several passengers to a travel package in one step.
+     *
+     * @param packageName The name of the travel package.
+     * @param passengers  The passengers to add.
+     */
+    public void addPassengersToTravelPackage(String packageName, List<Passenger> passengers) {
+        catalogStore.addPassengers(packageName, passengers);
+    }
+
+    /**
+     * Retrieves the itinerary of a travel package.
+     *
+     * @param packageName The name of the travel package.
+     * @return The itinerary, or null if the travel package is not found.
+     */
+    public ItineraryResponse getItinerary(String packageName) {
         TravelPackage travelPackage = findTravelPackageByName(packageName);
-        if (travelPackage != null) {
-            travelPackage.addPassenger(passenger);
-            passengers.add(passenger);
+        return travelPackage != null ? ItineraryResponse.from(travelPackage) : null;
+    }
+
+    /**
+     * Retrieves the passenger list of a travel package.
+     *
+     * @param packageName The name of the travel package.
+     * @return The passenger list, or null if the travel package is not found.
+     */
+    public PassengerListResponse getPassengerList(String packageName) {
+        TravelPackage travelPackage = findTravelPackageByName(packageName);
+        return travelPackage != null ? PassengerListResponse.from(travelPackage) : null;
+    }
+
+    /**
+     * Retrieves the details of a passenger with the given passenger number.
+     *
+     * @param passengerNumber The passenger number.
+     * @return The passenger details with the travel packages they are enrolled in, or null if the passenger is not found.
+     */
+    public PassengerDetailsResponse getPassengerDetails(int passengerNumber) {
+        Passenger passenger = findPassengerByNumber(passengerNumber);
+        if (passenger == null) {
+            return null;
+        }
+        List<TravelPackage> travelPackages = catalogStore.findTravelPackagesOfPassenger(passengerNumber);
+        // Sign-ups change the passenger's activities and balance under this stripe.
+        int stripe = signUpLocks.stripeFor(passengerNumber);
+        signUpLocks.lock(stripe, stripe);
+        try {
+            return PassengerDetailsResponse.from(passenger, travelPackages);
+        } finally {
+            signUpLocks.unlock(stripe, stripe);
+        }
+    }
+
+    /**
+     * Retrieves the activities that still have seats available, ready to be returned by the API.
+     *
+     * @return The list of available activities.
+     */
+    public List<ActivityResponse> listAvailableActivities() {
+        return getAvailableActivities().stream().map(ActivityResponse::from).toList();
+    }
+
+    /**
+     * Retrieves a page of the available activities a passenger can afford with their current balance,
+     * cheapest first.
+     * <p>
+     * The activities come from a cost-sorted index, so a page costs O(log n + k). The passenger's
+     * balance is mapped onto the highest affordable base cost for their tier and any promotion, and
+     * the exact price is quoted again for each activity in that range.
+     *
+     * @param passengerNumber The passenger number.
+     * @param afterCost       The cost part of the cursor returned with the previous page, or null.
+     * @param afterId         The id part of the cursor returned with the previous page, or null.
+     * @param limit           The maximum number of activities to return, capped at 100.
+     * @return The page of affordable activities, or null if the passenger is not found.
+     * @throws IllegalArgumentException if only one part of the cursor is given or either part is negative.
+     */
+    public AffordableActivitiesResponse getAffordableActivities(int passengerNumber, Double afterCost, Long afterId, int limit) {
+        if ((afterCost == null) != (afterId == null)) {
+            throw new IllegalArgumentException("afterCost and afterId must be given together.");
+        }
+        if (afterCost != null && (!(afterCost >= 0) || afterId < 0)) {
+            throw new IllegalArgumentException("Cursor " + afterCost + "/" + afterId + " is not valid.");
+        }
+        Passenger passenger = findPassengerByNumber(passengerNumber);
+        if (passenger == null) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long balance = passenger.getBalanceMinorUnits();
+        long maxCost = pricingEngine.maxAffordableCost(passenger);
+        double searchCost = maxCost == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : Money.toMajorUnits(maxCost);
+        RankedActivity after = afterCost != null ? new RankedActivity(null, afterCost, afterId) : null;
+
+        List<RankedActivity> candidates = catalogStore.getAvailableActivitiesUpToCost(searchCost, after, pageSize);
+        List<AffordableActivity> activities = new ArrayList<>(candidates.size());
+        for (RankedActivity candidate : candidates) {
+            long price = pricingEngine.quote(passenger, candidate.activity());
+            if (price <= balance) {
+                activities.add(new AffordableActivity(ActivityResponse.from(candidate.activity()), Money.toMajorUnits(price)));
+            }
         }
+
+        if (candidates.size() < pageSize) {
+            return new AffordableActivitiesResponse(passengerNumber, Money.toMajorUnits(balance), activities, null, null);
+        }
+        RankedActivity last = candidates.get(candidates.size() - 1);
+        return new AffordableActivitiesResponse(passengerNumber, Money.toMajorUnits(balance), activities, last.cost(), last.rank());
     }
 
     /**
@@ -130,12 +336,19 @@ public class TravelPackageService {
      * @param passengerNumber The passenger number.
      */
     public void printPassengerDetails(int passengerNumber) {
-        for (TravelPackage travelPackage : travelPackages) {
-            Passenger passenger = travelPackage.findPassengerByNumber(passengerNumber);
-            if (passenger != null) {
+        Passenger passenger = findPassengerByNumber(passengerNumber);
+        if (passenger != null) {
+            int stripe = signUpLocks.stripeFor(passengerNumber);
+            signUpLocks.lock(stripe, stripe);
+            try {
                 passenger.printDetails();
-                return; // Exit the method after printing the details
+            } finally {
+                signUpLocks.unlock(stripe, stripe);
             }
+            for (TravelPackage travelPackage : catalogStore.findTravelPackagesOfPassenger(passengerNumber)) {
+                System.out.println("Travel Package: " + travelPackage.getName());
+            }
+            return; // Exit the method after printing the details
         }
         System.out.println("Passenger with number " + passengerNumber + " not found.");
     }
@@ -161,93 +374,330 @@ public class TravelPackageService {
 
 
     private TravelPackage findTravelPackageByName(String packageName) {
-        for (TravelPackage travelPackage : travelPackages) {
-            if (travelPackage.getName().equals(packageName)) {
-                return travelPackage;
+        return catalogStore.findTravelPackageByName(packageName);
+    }
+
+    /**
+     * Retrieves the activities that still have seats available.
+     *
+     * @return The list of available activities.
+     */
+    public List<Activity> getAvailableActivities() {
+        return signUpMetrics.availableActivitiesTimer().record(catalogStore::getAvailableActivities);
+    }
+
+    private Passenger findPassengerByNumber(int passengerNumber) {
+        return catalogStore.findPassengerByNumber(passengerNumber);
+    }
+
+    /**
+     * Signs up a passenger for an activity.
+     *
+     * @param passengerNumber The passenger number.
+     * @param activityName    The name of the activity.
+     * @param destinationName The name of the destination.
+     */
+    public void signUpPassengerForActivity(int passengerNumber, String activityName, String destinationName) {
+        long start = System.nanoTime();
+        SignUpStatus status = SignUpStatus.FAILED;
+        try {
+            Passenger passenger = findPassengerByNumber(passengerNumber);
+            if (passenger == null) {
+                status = SignUpStatus.NOT_FOUND;
+                throw new IllegalArgumentException("Passenger with number " + passengerNumber + " not found.");
             }
+
+            Destination destination = catalogStore.findDestinationByName(destinationName);
+            if (destination == null) {
+                status = SignUpStatus.NOT_FOUND;
+                throw new IllegalArgumentException("Destination with name " + destinationName + " not found.");
+            }
+
+            Activity activity = catalogStore.findActivityAtDestination(destinationName, activityName);
+            if (activity == null) {
+                status = SignUpStatus.NOT_FOUND;
+                throw new IllegalArgumentException("Activity with name " + activityName + " not found at destination " + destinationName + ".");
+            }
+
+            status = signUp(passenger, activity);
+            if (status == SignUpStatus.SOLD_OUT) {
+                throw new IllegalStateException("Activity " + activity.getName() + " at destination " + destination.getName() + " is already fully booked.");
+            }
+        } finally {
+            signUpMetrics.recordOutcome(status);
+            signUpMetrics.signUpTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        return null;
     }
 
-    private Destination findDestinationByName(String destinationName) {
-        for (TravelPackage travelPackage : travelPackages) {
-            Destination destination = travelPackage.findDestinationByName(destinationName);
-            if (destination != null) {
-                return destination;
+    /**
+     * Signs up a batch of passengers for activities.
+     * <p>
+     * Entries are grouped by activity. Each group reserves its seats with a single inventory update
+     * and locks the stripes of the activity and all of its passengers once, instead of once per entry.
+     *
+     * @param requests The sign-up requests.
+     * @return The result of each request, in request order.
+     */
+    public List<SignUpResult> signUpPassengersForActivities(List<SignUpRequest> requests) {
+        long start = System.nanoTime();
+        SignUpResult[] results = new SignUpResult[requests.size()];
+        Map<Activity, List<Integer>> groups = new LinkedHashMap<>();
+        Passenger[] passengers = new Passenger[requests.size()];
+
+        for (int i = 0; i < requests.size(); i++) {
+            SignUpRequest request = requests.get(i);
+            Passenger passenger = findPassengerByNumber(request.passengerNumber());
+            if (passenger == null) {
+                results[i] = SignUpResult.of(request, SignUpStatus.NOT_FOUND, "Passenger with number " + request.passengerNumber() + " not found.");
+                continue;
+            }
+            if (catalogStore.findDestinationByName(request.destinationName()) == null) {
+                results[i] = SignUpResult.of(request, SignUpStatus.NOT_FOUND, "Destination with name " + request.destinationName() + " not found.");
+                continue;
             }
+            Activity activity = catalogStore.findActivityAtDestination(request.destinationName(), request.activityName());
+            if (activity == null) {
+                results[i] = SignUpResult.of(request, SignUpStatus.NOT_FOUND, "Activity with name " + request.activityName() + " not found at destination " + request.destinationName() + ".");
+                continue;
+            }
+            passengers[i] = passenger;
+            groups.computeIfAbsent(activity, key -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<Activity, List<Integer>> group : groups.entrySet()) {
+            signUpGroup(group.getKey(), group.getValue(), requests, passengers, results);
         }
-        return null;
+        for (SignUpResult result : results) {
+            signUpMetrics.recordOutcome(result.status());
+        }
+        signUpMetrics.bulkSignUpTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return Arrays.asList(results);
     }
 
-    private Activity findActivityByNameAndDestination(String activityName, Destination destination) {
-        for (Activity activity : destination.getActivities()) {
-            if (activity.getName().equals(activityName)) {
-                return activity;
+    private void signUpGroup(Activity activity, List<Integer> indexes, List<SignUpRequest> requests,
+                             Passenger[] passengers, SignUpResult[] results) {
+        int[] stripes = new int[indexes.size() + 1];
+        stripes[0] = signUpLocks.stripeFor(System.identityHashCode(activity));
+        for (int i = 0; i < indexes.size(); i++) {
+            stripes[i + 1] = signUpLocks.stripeFor(passengers[indexes.get(i)].getPassengerNumber());
+        }
+        stripes = Arrays.stream(stripes).sorted().distinct().toArray();
+
+        long[] prices = new long[indexes.size()];
+        long journalSequence = 0;
+        signUpLocks.lockAll(stripes);
+        try {
+            int heldSeats = activity.getSeatInventory().tryReserve(indexes.size());
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                SignUpRequest request = requests.get(index);
+                prices[i] = -1;
+                if (heldSeats == 0) {
+                    results[index] = SignUpResult.of(request, SignUpStatus.SOLD_OUT, "Activity " + activity.getName() + " at destination " + request.destinationName() + " is already fully booked.");
+                    continue;
+                }
+                try {
+                    long price = pricingEngine.quote(passengers[index], activity);
+                    SignUpStatus status = applyReservedSignUp(passengers[index], activity, price);
+                    if (status == SignUpStatus.SIGNED_UP) {
+                        journalSequence = Math.max(journalSequence, journalSignUp(passengers[index], activity, price));
+                        heldSeats--;
+                        prices[i] = price;
+                        results[index] = SignUpResult.of(request, status, "Signed up.");
+                    } else {
+                        results[index] = SignUpResult.of(request, status, "Passenger with number " + request.passengerNumber() + " does not have sufficient balance to sign up for " + activity.getName() + ".");
+                    }
+                } catch (RuntimeException e) {
+                    results[index] = SignUpResult.of(request, SignUpStatus.FAILED, e.getMessage());
+                }
             }
+            activity.getSeatInventory().release(heldSeats);
+        } finally {
+            signUpLocks.unlockAll(stripes);
         }
-        return null;
-    }
 
-    private List<Activity> getAvailableActivities() {
-        List<Activity> availableActivities = new ArrayList<>();
-        for (TravelPackage travelPackage : travelPackages) {
-            for (Destination destination : travelPackage.getDestinations()) {
-                for (Activity activity : destination.getActivities()) {
-                    if (activity.hasAvailability()) {
-                        availableActivities.add(activity);
+        RuntimeException journalFailure = null;
+        if (journalSequence > 0) {
+            try {
+                bookingJournal.awaitDurable(journalSequence);
+            } catch (RuntimeException e) {
+                journalFailure = e;
+            }
+        }
+        if (journalFailure != null) {
+            // Nothing of the group was published yet, so it can be taken back as if it never happened.
+            signUpLocks.lockAll(stripes);
+            try {
+                int releasedSeats = 0;
+                for (int i = 0; i < indexes.size(); i++) {
+                    if (prices[i] >= 0) {
+                        int index = indexes.get(i);
+                        undoSignUp(passengers[index], activity, prices[i]);
+                        releasedSeats++;
+                        prices[i] = -1;
+                        results[index] = SignUpResult.of(requests.get(index), SignUpStatus.FAILED, journalFailure.getMessage());
                     }
                 }
+                activity.getSeatInventory().release(releasedSeats);
+            } finally {
+                signUpLocks.unlockAll(stripes);
+            }
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            if (prices[i] >= 0) {
+                notifySignedUp(passengers[indexes.get(i)], activity, prices[i]);
             }
         }
-        return availableActivities;
     }
 
-    private Passenger findPassengerByNumber(int passengerNumber) {
-        for (Passenger passenger : passengers) {
-            if (passenger.getPassengerNumber() == passengerNumber) {
-                return passenger;
+    /**
+     * Signs up a passenger for an activity as one all-or-nothing step: the seat, the debit and both
+     * sides of the passenger/activity link are applied together or not at all.
+     * <p>
+     * The stripes guarding the passenger and the activity are held for the whole step, so sign-ups
+     * touching either of them are serialized while unrelated sign-ups run in parallel.
+     *
+     * @param passenger The passenger to sign up.
+     * @param activity  The activity to sign up for.
+     * @return The outcome of the sign-up.
+     */
+    private SignUpStatus signUp(Passenger passenger, Activity activity) {
+        int passengerStripe = signUpLocks.stripeFor(passenger.getPassengerNumber());
+        int activityStripe = signUpLocks.stripeFor(System.identityHashCode(activity));
+        SignUpStatus status = SignUpStatus.FAILED;
+        long price = 0;
+        long journalSequence = 0;
+        signUpLocks.lock(passengerStripe, activityStripe);
+        try {
+            if (!activity.bookAvailability()) {
+                return SignUpStatus.SOLD_OUT;
+            }
+            try {
+                price = pricingEngine.quote(passenger, activity);
+                SignUpStatus applied = applyReservedSignUp(passenger, activity, price);
+                if (applied == SignUpStatus.SIGNED_UP) {
+                    journalSequence = journalSignUp(passenger, activity, price);
+                }
+                status = applied;
+            } finally {
+                if (status != SignUpStatus.SIGNED_UP) {
+                    activity.releaseAvailability();
+                }
             }
+        } finally {
+            signUpLocks.unlock(passengerStripe, activityStripe);
         }
-        return null;
-    }
-    
-    private Passenger findPassengerByNames(int passengerNumber) {
-        for (Passenger passenger : passengers) {
-            if (passenger.getPassengerNumber() == passengerNumber) {
-                return passenger;
+
+        if (journalSequence > 0) {
+            try {
+                bookingJournal.awaitDurable(journalSequence);
+            } catch (RuntimeException e) {
+                // Nothing was published yet, so the sign-up can be taken back as if it never happened.
+                signUpLocks.lock(passengerStripe, activityStripe);
+                try {
+                    undoSignUp(passenger, activity, price);
+                    activity.releaseAvailability();
+                } finally {
+                    signUpLocks.unlock(passengerStripe, activityStripe);
+                }
+                throw e;
             }
         }
-        return null;
+        if (status == SignUpStatus.SIGNED_UP) {
+            notifySignedUp(passenger, activity, price);
+        }
+        return status;
     }
 
     /**
-     * Signs up a passenger for an activity.
+     * Charges a passenger and links them to an activity on which a seat is already reserved. The
+     * caller must hold the stripes of both; the seat stays with the caller unless the sign-up succeeds.
      *
-     * @param passengerNumber The passenger number.
-     * @param activityName    The name of the activity.
-     * @param destinationName The name of the destination.
+     * @param passenger The passenger to sign up.
+     * @param activity  The activity to sign up for.
+     * @param price     The price the passenger pays for the activity, in minor units.
+     * @return {@link SignUpStatus#SIGNED_UP} or {@link SignUpStatus#INSUFFICIENT_BALANCE}.
      */
-    public void signUpPassengerForActivity(int passengerNumber, String activityName, String destinationName) {
-        Passenger passenger = findPassengerByNumber(passengerNumber);
-        if (passenger == null) {
-            throw new IllegalArgumentException("Passenger with number " + passengerNumber + " not found.");
+    private SignUpStatus applyReservedSignUp(Passenger passenger, Activity activity, long price) {
+        if (passenger.getBalanceMinorUnits() < price) {
+            return SignUpStatus.INSUFFICIENT_BALANCE;
         }
 
-        Destination destination = findDestinationByName(destinationName);
-        if (destination == null) {
-            throw new IllegalArgumentException("Destination with name " + destinationName + " not found.");
+        passenger.debitMinorUnits(price);
+        boolean passengerLinked = false;
+        try {
+            passenger.addActivity(activity);
+            passengerLinked = true;
+            activity.signUpPassenger(passenger);
+        } catch (RuntimeException e) {
+            if (passengerLinked) {
+                passenger.removeActivity(activity);
+            }
+            passenger.creditMinorUnits(price);
+            throw e;
         }
+        return SignUpStatus.SIGNED_UP;
+    }
 
-        Activity activity = findActivityByNameAndDestination(activityName, destination);
-        if (activity == null) {
-            throw new IllegalArgumentException("Activity with name " + activityName + " not found at destination " + destinationName + ".");
+    /**
+     * Appends a sign-up that has just been applied to the journal, undoing it if the append fails.
+     * Activities that were not loaded from the database have no ID and are not journaled.
+     *
+     * @param passenger The passenger that signed up.
+     * @param activity  The activity signed up for.
+     * @param price     The amount debited from the passenger, in minor units.
+     * @return The journal sequence number, or 0 if nothing was journaled.
+     */
+    private long journalSignUp(Passenger passenger, Activity activity, long price) {
+        if (bookingJournal == null || activity.getId() == 0) {
+            return 0;
+        }
+        try {
+            return bookingJournal.append(passenger.getPassengerNumber(), activity.getId(), Money.toMajorUnits(price));
+        } catch (RuntimeException e) {
+            undoSignUp(passenger, activity, price);
+            throw e;
         }
+    }
 
-        if (!activity.hasAvailability()) {
-            throw new IllegalStateException("Activity " + activity.getName() + " at destination " + destination.getName() + " is already fully booked.");
+    /**
+     * Takes back the debit and both sides of the link of an applied sign-up. The caller must hold the
+     * stripes of the passenger and the activity and hands the seat back itself.
+     *
+     * @param passenger The passenger that signed up.
+     * @param activity  The activity signed up for.
+     * @param price     The amount debited from the passenger, in minor units.
+     */
+    private void undoSignUp(Passenger passenger, Activity activity, long price) {
+        activity.removePassenger(passenger);
+        passenger.removeActivity(activity);
+        passenger.creditMinorUnits(price);
+    }
+
+    /**
+     * Runs an action while no sign-up is in progress, so it observes seats, balances and the journal
+     * position at a single consistent point.
+     *
+     * @param action The action to run.
+     * @param <T>    The type of the action's result.
+     * @return The result of the action.
+     */
+    public <T> T callWithSignUpsPaused(Supplier<T> action) {
+        signUpLocks.lockAllStripes();
+        try {
+            return action.get();
+        } finally {
+            signUpLocks.unlockAllStripes();
         }
+    }
 
-        if (passenger.signUpForActivity(activity))
-            activity.signUpPassenger(passenger);
+    private void notifySignedUp(Passenger passenger, Activity activity, long price) {
+        if (bookingListeners.isEmpty()) {
+            return;
+        }
+        double amount = Money.toMajorUnits(price);
+        for (BookingListener bookingListener : bookingListeners) {
+            bookingListener.onSignedUp(passenger, activity, amount);
+        }
     }
 }
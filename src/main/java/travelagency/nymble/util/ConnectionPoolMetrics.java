@@ -0,0 +1,107 @@
+package travelagency.nymble.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+import travelagency.nymble.dto.ConnectionPoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records connection pool activity reported by HikariCP.
+ * <p>
+ * Acquire times are kept in a histogram of power-of-two microsecond buckets, so percentiles cost a
+ * fixed amount of memory and recording never allocates or locks. The live connection counts come
+ * from the pool's own {@link PoolStats}, which HikariCP refreshes at most once a second.
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray acquireHistogram = new AtomicLongArray(BUCKETS);
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator acquireMaxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder usages = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new Tracker();
+    }
+
+    /**
+     * Takes a snapshot of the pool counters and acquire-latency statistics.
+     *
+     * @return The current connection pool statistics.
+     */
+    public ConnectionPoolStats snapshot() {
+        PoolStats stats = poolStats;
+        long count = acquisitions.sum();
+        long uses = usages.sum();
+        return new ConnectionPoolStats(
+                poolName,
+                stats != null ? stats.getActiveConnections() : 0,
+                stats != null ? stats.getIdleConnections() : 0,
+                stats != null ? stats.getPendingThreads() : 0,
+                stats != null ? stats.getTotalConnections() : 0,
+                stats != null ? stats.getMaxConnections() : 0,
+                count,
+                acquireTimeouts.sum(),
+                count > 0 ? acquireNanos.sum() / 1_000.0 / count : 0.0,
+                acquirePercentileMicros(0.99, count),
+                TimeUnit.NANOSECONDS.toMicros(acquireMaxNanos.get()),
+                uses > 0 ? (double) usageMillis.sum() / uses : 0.0
+        );
+    }
+
+    private long acquirePercentileMicros(double percentile, long count) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += acquireHistogram.get(bucket);
+            if (seen >= target) {
+                return 1L << bucket;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    // Bucket i holds acquire times in [2^(i-1), 2^i) microseconds.
+    private static int bucketFor(long micros) {
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+
+    private class Tracker implements IMetricsTracker {
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+            acquireMaxNanos.accumulate(elapsedAcquiredNanos);
+            acquireHistogram.incrementAndGet(bucketFor(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos)));
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usages.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            acquireTimeouts.increment();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package travelagency.nymble.util;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Hash map from primitive int keys to non-null values, using open addressing with linear probing.
+ * <p>
+ * Keys are stored in an {@code int[]} next to a parallel value array, so neither lookups nor inserts
+ * box the key and a lookup touches at most a few adjacent slots. The table is kept at most half full
+ * and doubles when it would grow past that.
+ * <p>
+ * Lookups run under an optimistic {@link StampedLock} read that is validated afterwards; they only
+ * fall back to a read lock if a write raced with them, so they are lock-free and allocation-free in the
+ * common case. Writes are serialized by the write lock. Entries cannot be removed.
+ *
+ * @param <V> The type of the values.
+ */
+public class IntObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private int size;
+
+    /**
+     * Constructs an empty IntObjectMap object.
+     */
+    public IntObjectMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructs an empty IntObjectMap object sized for the given number of entries.
+     *
+     * @param expectedSize The number of entries the map should hold without resizing.
+     */
+    public IntObjectMap(int expectedSize) {
+        this.table = new Table(tableCapacityFor(expectedSize));
+    }
+
+    /**
+     * Gets the value mapped to a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key is not mapped.
+     */
+    public V get(int key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Object value = table.find(key);
+            if (lock.validate(stamp)) {
+                return cast(value);
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return cast(table.find(key));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key   The key.
+     * @param value The value, not null.
+     * @return The previous value, or null if the key was not mapped.
+     */
+    public V put(int key, V value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Maps a key to a value unless the key is already mapped.
+     *
+     * @param key   The key.
+     * @param value The value, not null.
+     * @return The value already mapped to the key, or null if the given value was added.
+     */
+    public V putIfAbsent(int key, V value) {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Gets the number of mapped keys.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private V insert(int key, V value, boolean replace) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntObjectMap does not accept null values.");
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = table.slotOf(key);
+            Object existing = table.values[slot];
+            if (existing != null) {
+                if (replace) {
+                    table.values[slot] = value;
+                }
+                return cast(existing);
+            }
+            if ((size + 1) * 2 > table.keys.length) {
+                table = table.resized(table.keys.length * 2);
+                slot = table.slotOf(key);
+            }
+            table.keys[slot] = key;
+            table.values[slot] = value;
+            size++;
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    private static int tableCapacityFor(int expectedSize) {
+        int wanted = Math.max(MIN_CAPACITY, expectedSize * 2);
+        return Integer.highestOneBit(wanted - 1) << 1;
+    }
+
+    private static final class Table {
+        private final int[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Finds the value of a key. Bounded by the table size, so a read racing with a write sees a
+         * stale result at worst, which the caller's validation rejects.
+         */
+        private Object find(int key) {
+            int slot = hash(key) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                Object value = values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[slot] == key) {
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Finds the slot holding a key, or the empty slot where it would be inserted. Only called under
+         * the write lock, on a table that always has an empty slot.
+         */
+        private int slotOf(int key) {
+            int slot = hash(key) & mask;
+            while (values[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private Table resized(int capacity) {
+            Table resized = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != null) {
+                    int slot = resized.slotOf(keys[i]);
+                    resized.keys[slot] = keys[i];
+                    resized.values[slot] = values[i];
+                }
+            }
+            return resized;
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package travelagency.nymble.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed array of locks that keys are hashed onto.
+ * <p>
+ * Unrelated keys usually land on different stripes and can be locked in parallel. When a caller needs
+ * several stripes, they are always acquired in ascending stripe order, so threads locking overlapping
+ * sets can never deadlock regardless of the order they name the keys in.
+ */
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Constructs a StripedLock object.
+     *
+     * @param minimumStripes The minimum number of stripes; rounded up to the next power of two.
+     */
+    public StripedLock(int minimumStripes) {
+        int size = Integer.highestOneBit(Math.max(minimumStripes - 1, 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gets the stripe a key hash maps onto.
+     *
+     * @param hash The hash of the key.
+     * @return The stripe index.
+     */
+    public int stripeFor(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Locks two stripes in ascending order, locking only once when both are the same.
+     *
+     * @param first  The first stripe index.
+     * @param second The second stripe index.
+     */
+    public void lock(int first, int second) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        stripes[low].lock();
+        if (high != low) {
+            stripes[high].lock();
+        }
+    }
+
+    /**
+     * Unlocks two stripes previously locked with {@link #lock(int, int)}.
+     *
+     * @param first  The first stripe index.
+     * @param second The second stripe index.
+     */
+    public void unlock(int first, int second) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        if (high != low) {
+            stripes[high].unlock();
+        }
+        stripes[low].unlock();
+    }
+
+    /**
+     * Locks every stripe of a set in ascending order.
+     *
+     * @param stripeIndexes The stripe indexes, sorted in ascending order without duplicates.
+     */
+    public void lockAll(int[] stripeIndexes) {
+        for (int stripe : stripeIndexes) {
+            stripes[stripe].lock();
+        }
+    }
+
+    /**
+     * Unlocks every stripe previously locked with {@link #lockAll(int[])}.
+     *
+     * @param stripeIndexes The stripe indexes passed to {@link #lockAll(int[])}.
+     */
+    public void unlockAll(int[] stripeIndexes) {
+        for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+            stripes[stripeIndexes[i]].unlock();
+        }
+    }
+
+    /**
+     * Locks every stripe in ascending order, excluding all other holders of any stripe.
+     */
+    public void lockAllStripes() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    /**
+     * Unlocks every stripe previously locked with {@link #lockAllStripes()}.
+     */
+    public void unlockAllStripes() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+}
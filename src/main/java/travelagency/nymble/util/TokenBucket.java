@@ -0,0 +1,75 @@
+package travelagency.nymble.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rate limiter that refills tokens continuously at a fixed rate up to a maximum burst.
+ * <p>
+ * Tokens are refilled lazily from the time elapsed since the last call, so an idle bucket costs
+ * nothing and needs no timer thread. The state is guarded by a {@link ReentrantLock} rather than a
+ * monitor, so a virtual thread waiting for a busy bucket does not pin its carrier thread.
+ */
+public class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long refilledAtNanos;
+
+    /**
+     * Constructs a TokenBucket object that starts full.
+     *
+     * @param tokensPerSecond The rate tokens are added at.
+     * @param burst           The maximum number of tokens the bucket holds.
+     */
+    public TokenBucket(double tokensPerSecond, int burst) {
+        if (tokensPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Token bucket rate and burst must be positive, got " + tokensPerSecond + " and " + burst + ".");
+        }
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = burst;
+        this.tokens = burst;
+        this.refilledAtNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return true if a token was taken, false if the bucket is empty.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the time until the next token is available.
+     *
+     * @return The wait in nanoseconds, or 0 if a token is available now.
+     */
+    public long nanosUntilAvailable() {
+        lock.lock();
+        try {
+            refill();
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * tokensPerNano);
+        refilledAtNanos = now;
+    }
+}
@@ -0,0 +1,69 @@
+package travelagency.nymble.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads on runtimes that have them.
+ * <p>
+ * The application is compiled for Java 17, which has no virtual threads, so the factory method is
+ * looked up reflectively once. On Java 21 and later it creates a virtual thread per task; on older
+ * runtimes callers fall back to platform threads.
+ */
+public final class VirtualThreads {
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether the running JVM supports virtual threads.
+     *
+     * @return true if virtual-thread executors can be created.
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @return The executor.
+     * @throws UnsupportedOperationException if the running JVM has no virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later; running on Java "
+                    + Runtime.version().feature() + ".");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create a virtual-thread executor.", e);
+        }
+    }
+
+    /**
+     * Creates a virtual-thread executor when requested and supported, and a fixed pool of platform
+     * threads otherwise.
+     *
+     * @param virtual         Whether virtual threads are wanted.
+     * @param platformThreads The size of the platform thread pool used as the fallback.
+     * @return The executor.
+     */
+    public static ExecutorService newExecutor(boolean virtual, int platformThreads) {
+        return virtual && isSupported() ? newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(platformThreads);
+    }
+
+    private static MethodHandle findFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
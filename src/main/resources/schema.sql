@@ -0,0 +1,4 @@
+CREATE TABLE IF NOT EXISTS passenger_activity (
+    passenger_number INT NOT NULL,
+    activity_id INT NOT NULL
+);
@@ -0,0 +1,37 @@
+package travelagency.nymble.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlInterceptorTest {
+
+    @Test
+    public void preHandle_shouldRejectSaturatedLaneWithoutAffectingTheOther() throws Exception {
+        // Arrange
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(1, 1, 0, new SimpleMeterRegistry());
+        MockHttpServletRequest firstRead = request("GET", "/api/travel-packages/available-activities");
+        assertTrue(interceptor.preHandle(firstRead, new MockHttpServletResponse(), null));
+
+        // Act
+        MockHttpServletResponse rejectedRead = new MockHttpServletResponse();
+        boolean secondReadAdmitted = interceptor.preHandle(request("GET", "/api/travel-packages/available-activities"), rejectedRead, null);
+        boolean writeAdmitted = interceptor.preHandle(request("POST", "/api/travel-packages/passengers/1/activities"), new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(firstRead, new MockHttpServletResponse(), null, null);
+        boolean thirdReadAdmitted = interceptor.preHandle(request("GET", "/api/travel-packages/available-activities"), new MockHttpServletResponse(), null);
+
+        // Assert
+        assertFalse(secondReadAdmitted);
+        assertEquals(429, rejectedRead.getStatus());
+        assertEquals("1", rejectedRead.getHeader("Retry-After"));
+        assertTrue(writeAdmitted);
+        assertTrue(thirdReadAdmitted);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
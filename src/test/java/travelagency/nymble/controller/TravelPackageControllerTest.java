@@ -0,0 +1,72 @@
+package travelagency.nymble.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import travelagency.nymble.dto.SignUpRequest;
+import travelagency.nymble.dto.SignUpResult;
+import travelagency.nymble.service.IdempotencyService;
+import travelagency.nymble.service.SignUpStatus;
+import travelagency.nymble.service.TravelPackageService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class TravelPackageControllerTest {
+
+    @Test
+    public void signUpPassengersForActivities_shouldRateLimitEachEntryByPassenger() {
+        // Arrange
+        TravelPackageService travelPackageService = mock(TravelPackageService.class);
+        when(travelPackageService.signUpPassengersForActivities(anyList())).thenAnswer(invocation -> {
+            List<SignUpRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> SignUpResult.of(request, SignUpStatus.SIGNED_UP, "Signed up.")).toList();
+        });
+        TravelPackageController controller = new TravelPackageController(null, travelPackageService, null, null,
+                new IdempotencyService(100, 60, 5000, new SimpleMeterRegistry()),
+                new SignUpRateLimiter(0.5, 2, new SimpleMeterRegistry()));
+        List<SignUpRequest> requests = List.of(
+                new SignUpRequest(1, "Eiffel Tower Tour", "Paris"),
+                new SignUpRequest(1, "Louvre Visit", "Paris"),
+                new SignUpRequest(1, "Seine Cruise", "Paris"),
+                new SignUpRequest(2, "Eiffel Tower Tour", "Paris"));
+
+        // Act
+        ResponseEntity<List<SignUpResult>> response = controller.signUpPassengersForActivities(requests, null);
+
+        // Assert
+        List<SignUpResult> results = response.getBody();
+        assertNotNull(results);
+        assertEquals(List.of(SignUpStatus.SIGNED_UP, SignUpStatus.SIGNED_UP, SignUpStatus.RATE_LIMITED, SignUpStatus.SIGNED_UP),
+                results.stream().map(SignUpResult::status).toList());
+        assertEquals("Seine Cruise", results.get(2).activityName());
+        verify(travelPackageService).signUpPassengersForActivities(List.of(requests.get(0), requests.get(1), requests.get(3)));
+    }
+
+    @Test
+    public void signUpPassengerForActivity_shouldRateLimitPerPassengerButReplayWithoutSpendingTokens() {
+        // Arrange
+        TravelPackageService travelPackageService = mock(TravelPackageService.class);
+        TravelPackageController controller = new TravelPackageController(null, travelPackageService, null, null,
+                new IdempotencyService(100, 60, 5000, new SimpleMeterRegistry()),
+                new SignUpRateLimiter(0.5, 2, new SimpleMeterRegistry()));
+        assertEquals(200, controller.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris", "key-1").getStatusCode().value());
+        assertEquals(200, controller.signUpPassengerForActivity(1, "Louvre Visit", "Paris", "key-2").getStatusCode().value());
+
+        // Act
+        ResponseEntity<Void> limited = controller.signUpPassengerForActivity(1, "Seine Cruise", "Paris", "key-3");
+        ResponseEntity<Void> replayed = controller.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris", "key-1");
+        ResponseEntity<Void> otherPassenger = controller.signUpPassengerForActivity(2, "Eiffel Tower Tour", "Paris", null);
+
+        // Assert
+        assertEquals(429, limited.getStatusCode().value());
+        assertEquals("2", limited.getHeaders().getFirst("Retry-After"));
+        assertEquals(200, replayed.getStatusCode().value());
+        assertEquals(200, otherPassenger.getStatusCode().value());
+        verify(travelPackageService).signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris");
+        verify(travelPackageService, never()).signUpPassengerForActivity(1, "Seine Cruise", "Paris");
+    }
+}
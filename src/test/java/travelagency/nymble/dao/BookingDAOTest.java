@@ -0,0 +1,112 @@
+package travelagency.nymble.dao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class BookingDAOTest {
+
+    @Test
+    public void book_shouldReportSoldOutWithoutDebitingPassenger() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ActivityDAO activityDAO = mock(ActivityDAO.class);
+        PassengerDAO passengerDAO = mock(PassengerDAO.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(passengerDAO.findIdByPassengerNumber(1)).thenReturn(10);
+        when(activityDAO.reserveSeat(7)).thenReturn(false);
+        BookingDAO bookingDAO = new BookingDAO(jdbcTemplate, activityDAO, passengerDAO, transactionManager, 3);
+
+        // Act
+        BookingDAO.BookingOutcome outcome = bookingDAO.book(1, 7, 50);
+
+        // Assert
+        assertEquals(BookingDAO.BookingOutcome.SOLD_OUT, outcome);
+        verify(passengerDAO, never()).debitIfSufficient(anyInt(), anyDouble());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(activityDAO, never()).evict(anyInt());
+    }
+
+    @Test
+    public void book_shouldRollBackSeatWhenBalanceIsInsufficient() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ActivityDAO activityDAO = mock(ActivityDAO.class);
+        PassengerDAO passengerDAO = mock(PassengerDAO.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        SimpleTransactionStatus transaction = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        when(passengerDAO.findIdByPassengerNumber(1)).thenReturn(10);
+        when(activityDAO.reserveSeat(7)).thenReturn(true);
+        when(passengerDAO.debitIfSufficient(10, 50)).thenReturn(false);
+        BookingDAO bookingDAO = new BookingDAO(jdbcTemplate, activityDAO, passengerDAO, transactionManager, 3);
+
+        // Act
+        BookingDAO.BookingOutcome outcome = bookingDAO.book(1, 7, 50);
+
+        // Assert
+        assertEquals(BookingDAO.BookingOutcome.INSUFFICIENT_BALANCE, outcome);
+        assertTrue(transaction.isRollbackOnly());
+        verify(transactionManager).commit(transaction);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(passengerDAO, never()).evict(anyInt());
+    }
+
+    @Test
+    public void book_shouldRethrowConflictAfterLastAttempt() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ActivityDAO activityDAO = mock(ActivityDAO.class);
+        PassengerDAO passengerDAO = mock(PassengerDAO.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(passengerDAO.findIdByPassengerNumber(1)).thenReturn(10);
+        when(activityDAO.reserveSeat(7)).thenThrow(new CannotAcquireLockException("Deadlock found"));
+        BookingDAO bookingDAO = new BookingDAO(jdbcTemplate, activityDAO, passengerDAO, transactionManager, 3);
+
+        // Act
+        assertThrows(ConcurrencyFailureException.class, () -> bookingDAO.book(1, 7, 50));
+
+        // Assert
+        verify(activityDAO, times(3)).reserveSeat(7);
+        verify(transactionManager, times(3)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    public void book_shouldDebitPassengerByRowIdAndEvictOnlyThatRow() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ActivityDAO activityDAO = mock(ActivityDAO.class);
+        PassengerDAO passengerDAO = mock(PassengerDAO.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(passengerDAO.findIdByPassengerNumber(1)).thenReturn(10);
+        when(activityDAO.reserveSeat(7)).thenReturn(true);
+        when(passengerDAO.debitIfSufficient(10, 50)).thenReturn(true);
+        when(passengerDAO.findIdByPassengerNumber(2)).thenReturn(null);
+        BookingDAO bookingDAO = new BookingDAO(jdbcTemplate, activityDAO, passengerDAO, transactionManager, 3);
+
+        // Act
+        BookingDAO.BookingOutcome outcome = bookingDAO.book(1, 7, 50);
+        BookingDAO.BookingOutcome unknown = bookingDAO.book(2, 7, 50);
+
+        // Assert
+        assertEquals(BookingDAO.BookingOutcome.BOOKED, outcome);
+        assertEquals(BookingDAO.BookingOutcome.PASSENGER_NOT_FOUND, unknown);
+        verify(jdbcTemplate).update("INSERT INTO passenger_activity (passenger_number, activity_id) VALUES (?, ?)", 1, 7);
+        verify(activityDAO).evict(7);
+        verify(passengerDAO).evict(10);
+        verify(passengerDAO, never()).evictAll();
+    }
+}
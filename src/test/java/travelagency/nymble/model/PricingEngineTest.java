@@ -0,0 +1,53 @@
+package travelagency.nymble.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingEngineTest {
+
+    @Test
+    public void quote_withDefaultPricing_shouldRoundEachTierToTheCent() {
+        // Arrange
+        Activity activity = new Activity("Eiffel Tower Tour", "Guided tour", 33.35, 10, new Destination(1, "Paris"));
+
+        // Act & Assert
+        assertEquals(3335, PricingEngine.DEFAULT.quote(new Passenger("John Doe", 1, 100, "STANDARD"), activity));
+        assertEquals(3002, PricingEngine.DEFAULT.quote(new Passenger("Emily Johnson", 2, 100, "GOLD"), activity));
+        assertEquals(0, PricingEngine.DEFAULT.quote(new Passenger("Michael Brown", 3, 100, "PREMIUM"), activity));
+        assertThrows(IllegalStateException.class, () -> PricingEngine.DEFAULT.quote(new Passenger("Sarah Lee", 4, 100, "SILVER"), activity));
+    }
+
+    @Test
+    public void quote_withPromotion_shouldApplyItOnTopOfTheTierDiscount() {
+        // Arrange
+        PricingEngine pricingEngine = new PricingEngine(Map.of(PassengerTier.GOLD, 2_000L), PricingEngine.parsePromotions("Paris:10, Rome:2.5"));
+        Passenger passenger = new Passenger("Emily Johnson", 2, 100, "GOLD");
+        Activity inParis = new Activity("Eiffel Tower Tour", "Guided tour", 50, 10, new Destination(1, "Paris"));
+        Activity inRome = new Activity("Colosseum Tour", "Guided tour", 40, 10, new Destination(2, "Rome"));
+        Activity inLondon = new Activity("London Eye", "Wheel", 30, 10, new Destination(3, "London"));
+
+        // Act & Assert
+        assertEquals(3600, pricingEngine.quote(passenger, inParis));
+        assertEquals(3120, pricingEngine.quote(passenger, inRome));
+        assertEquals(2400, pricingEngine.quote(passenger, inLondon));
+        assertTrue(pricingEngine.maxAffordableCost(passenger) >= Money.toMinorUnits(100 / 0.8 / 0.9));
+    }
+
+    @Test
+    public void debit_repeatedCents_shouldNotAccumulateRoundingErrors() {
+        // Arrange
+        Passenger passenger = new Passenger("John Doe", 1, 0.3, "STANDARD");
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            passenger.debit(0.1);
+        }
+
+        // Assert
+        assertEquals(0, passenger.getBalanceMinorUnits());
+        assertEquals(0.0, passenger.getBalance());
+    }
+}
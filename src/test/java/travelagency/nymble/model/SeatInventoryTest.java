@@ -0,0 +1,106 @@
+package travelagency.nymble.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatInventoryTest {
+
+    private static final int THREADS = 64;
+
+    @Test
+    public void tryReserve_withSingleSeatLeft_shouldReserveOnceAndFailAfterwards() {
+        // Arrange
+        SeatInventory seatInventory = new SeatInventory(1);
+
+        // Act & Assert
+        assertTrue(seatInventory.tryReserve());
+        assertFalse(seatInventory.tryReserve());
+        assertEquals(0, seatInventory.remaining());
+    }
+
+    @Test
+    public void tryReserveSeats_withFewerSeatsLeft_shouldGrantWhatIsLeft() {
+        // Arrange
+        SeatInventory seatInventory = new SeatInventory(3);
+
+        // Act
+        int granted = seatInventory.tryReserve(5);
+
+        // Assert
+        assertEquals(3, granted);
+        assertEquals(0, seatInventory.remaining());
+        seatInventory.release(2);
+        assertEquals(2, seatInventory.remaining());
+    }
+
+    @Test
+    public void tryReserve_withConcurrentThreads_shouldNeverOversell() throws InterruptedException {
+        // Arrange
+        int capacity = 5_000;
+        SeatInventory seatInventory = new SeatInventory(capacity);
+        AtomicInteger reserved = new AtomicInteger();
+
+        // Act
+        runConcurrently(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                if (seatInventory.tryReserve()) {
+                    reserved.incrementAndGet();
+                }
+            }
+        });
+
+        // Assert
+        assertEquals(capacity, reserved.get());
+        assertEquals(0, seatInventory.remaining());
+    }
+
+    @Test
+    public void signUpForActivity_withConcurrentPassengers_shouldNeverOversellActivity() throws InterruptedException {
+        // Arrange
+        int capacity = 10;
+        Destination destination = new Destination(1, "Paris");
+        Activity activity = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, capacity, destination);
+        AtomicInteger passengerNumbers = new AtomicInteger();
+        AtomicInteger signedUp = new AtomicInteger();
+
+        // Act
+        runConcurrently(() -> {
+            Passenger passenger = new Passenger("Passenger", passengerNumbers.incrementAndGet(), 0, "PREMIUM");
+            if (passenger.signUpForActivity(activity)) {
+                signedUp.incrementAndGet();
+            }
+        });
+
+        // Assert
+        assertEquals(capacity, signedUp.get());
+        assertEquals(0, activity.getCapacity());
+    }
+
+    private static void runConcurrently(Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,129 @@
+package travelagency.nymble.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void replay_shouldReturnRecordsAfterSequenceAcrossSegmentsAndRestarts() throws Exception {
+        // Arrange
+        BookingJournal journal = new BookingJournal(directory, 16 + 4 * 32);
+        journal.open();
+        for (int i = 1; i <= 10; i++) {
+            journal.awaitDurable(journal.append(i, 100 + i, i * 1.5));
+        }
+        journal.close();
+
+        // Act
+        BookingJournal reopened = new BookingJournal(directory, 16 + 4 * 32);
+        reopened.open();
+        long next = reopened.append(11, 111, 16.5);
+        List<String> records = new ArrayList<>();
+        long visited = reopened.replay(7, (sequence, passengerNumber, activityId, price) ->
+                records.add(sequence + ":" + passengerNumber + ":" + activityId + ":" + price));
+        reopened.close();
+
+        // Assert
+        assertEquals(11, next);
+        assertEquals(4, visited);
+        assertEquals(List.of("8:8:108:12.0", "9:9:109:13.5", "10:10:110:15.0", "11:11:111:16.5"), records);
+    }
+
+    @Test
+    public void open_shouldDropTornRecordAtTail() throws Exception {
+        // Arrange
+        BookingJournal journal = new BookingJournal(directory, 1024);
+        journal.open();
+        journal.append(1, 101, 10);
+        journal.awaitDurable(journal.append(2, 102, 20));
+        journal.close();
+        corruptByte(singleSegment(), 16 + 32 + 12);
+
+        // Act
+        BookingJournal reopened = new BookingJournal(directory, 1024);
+        reopened.open();
+        long[] visited = new long[1];
+        reopened.replay(0, (sequence, passengerNumber, activityId, price) -> visited[0]++);
+        long next = reopened.append(3, 103, 30);
+        reopened.close();
+
+        // Assert
+        assertEquals(1, visited[0]);
+        assertEquals(2, next);
+    }
+
+    @Test
+    public void truncateThrough_shouldDeleteOnlyFullyCoveredSegments() throws Exception {
+        // Arrange
+        BookingJournal journal = new BookingJournal(directory, 16 + 2 * 32);
+        journal.open();
+        for (int i = 1; i <= 5; i++) {
+            journal.append(i, i, i);
+        }
+
+        // Act
+        journal.truncateThrough(3);
+        List<Long> replayed = new ArrayList<>();
+        journal.replay(0, (sequence, passengerNumber, activityId, price) -> replayed.add(sequence));
+        journal.close();
+
+        // Assert
+        assertEquals(List.of(3L, 4L, 5L), replayed);
+    }
+
+    @Test
+    public void awaitDurable_shouldFailInsteadOfHangingWhenFlushFails() throws Exception {
+        // Arrange
+        BookingJournal journal = new BookingJournal(directory, 1024) {
+            @Override
+            void force(MappedByteBuffer mapped) {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+        };
+        journal.open();
+        long sequence = journal.append(1, 101, 10);
+
+        // Act
+        UncheckedIOException failure = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(UncheckedIOException.class, () -> journal.awaitDurable(sequence)));
+
+        // Assert
+        assertTrue(failure.getMessage().contains("could not be flushed"));
+        assertThrows(UncheckedIOException.class, () -> journal.append(2, 102, 20));
+        journal.close();
+    }
+
+    private Path singleSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private static void corruptByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) (value.get(0) ^ 0xFF)).rewind();
+            channel.write(value, position);
+        }
+    }
+}
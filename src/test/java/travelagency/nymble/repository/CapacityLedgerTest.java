@@ -0,0 +1,86 @@
+package travelagency.nymble.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import travelagency.nymble.model.SeatInventory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CapacityLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void tryReserve_shouldNeverOversellAcrossSeparateMappings() throws Exception {
+        // Arrange
+        CapacityLedger first = new CapacityLedger(directory.resolve("capacity.ledger"), 64);
+        first.open();
+        CapacityLedger second = new CapacityLedger(directory.resolve("capacity.ledger"), 64);
+        second.open();
+        SeatInventory[] inventories = {first.inventoryFor(7, 1000), second.inventoryFor(7, 50)};
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            SeatInventory inventory = inventories[i % 2];
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (inventory.tryReserve()) {
+                    reserved.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // Act
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(1000, reserved.get());
+        assertEquals(0, inventories[0].remaining());
+        assertEquals(0, inventories[1].remaining());
+        assertTrue(inventories[0].isDurable());
+    }
+
+    @Test
+    public void inventoryFor_shouldKeepCountsAcrossReopenAndCountRestocks() throws Exception {
+        // Arrange
+        CapacityLedger ledger = new CapacityLedger(directory.resolve("capacity.ledger"), 4);
+        ledger.open();
+        SeatInventory inventory = ledger.inventoryFor(3, 2);
+        inventory.tryReserve(2);
+        ledger.inventoryFor(11, 5);
+        ledger.close();
+
+        // Act
+        CapacityLedger reopened = new CapacityLedger(directory.resolve("capacity.ledger"), 1024);
+        reopened.open();
+        SeatInventory soldOut = reopened.inventoryFor(3, 2);
+        int soldOutRemaining = soldOut.remaining();
+        int restocksBefore = reopened.getRestockCount();
+        soldOut.release();
+
+        // Assert
+        assertEquals(0, soldOutRemaining);
+        assertEquals(1, soldOut.remaining());
+        assertEquals(5, reopened.inventoryFor(11, 99).remaining());
+        assertEquals(restocksBefore + 1, reopened.getRestockCount());
+        assertThrows(IllegalArgumentException.class, () -> reopened.inventoryFor(0, 1));
+    }
+}
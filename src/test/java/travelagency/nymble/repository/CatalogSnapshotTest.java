@@ -0,0 +1,99 @@
+package travelagency.nymble.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void readFrom_shouldRestoreGraphWrittenByWriteTo() throws IOException {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(7, "Package 1", 20);
+        Destination paris = new Destination(3, "Paris");
+        travelPackage.addDestination(paris);
+        Activity tour = new Activity("Eiffel Tower Tour", "Guided tour", 50.0, 10, paris);
+        tour.setId(11);
+        Activity cruise = new Activity("Seine Cruise", null, 30.0, 0, paris);
+        cruise.setId(12);
+        paris.addActivity(tour);
+        paris.addActivity(cruise);
+        Passenger passenger = new Passenger("John Doe", 1, 100.0, "GOLD");
+        travelPackage.addPassenger(passenger);
+        tour.bookAvailability();
+        passenger.debit(45.0);
+        passenger.addActivity(tour);
+        tour.signUpPassenger(passenger);
+        Path path = directory.resolve("catalog.snapshot");
+
+        // Act
+        CatalogSnapshot.capture(List.of(travelPackage)).writeTo(path);
+        List<TravelPackage> restored = CatalogSnapshot.readFrom(path).toTravelPackages();
+
+        // Assert
+        assertEquals(1, restored.size());
+        TravelPackage restoredPackage = restored.get(0);
+        assertEquals(7, restoredPackage.getId());
+        assertEquals(20, restoredPackage.getPassengerCapacity());
+        Destination restoredParis = restoredPackage.getDestinations().get(0);
+        assertEquals("Paris", restoredParis.getName());
+        Activity restoredTour = restoredParis.getActivities().get(0);
+        assertEquals(11, restoredTour.getId());
+        assertEquals(9, restoredTour.getCapacity());
+        assertSame(restoredParis, restoredTour.getDestination());
+        assertNull(restoredParis.getActivities().get(1).getDescription());
+        Passenger restoredPassenger = restoredPackage.getPassengers().get(0);
+        assertEquals(55.0, restoredPassenger.getBalance(), 1e-9);
+        assertEquals("GOLD", restoredPassenger.getPassengerType());
+        assertEquals(List.of(restoredTour), restoredPassenger.getActivities());
+        assertEquals(List.of(restoredPassenger), restoredTour.getSignedUpPassengers());
+    }
+
+    @Test
+    public void readFrom_shouldRejectUnknownVersion() throws IOException {
+        // Arrange
+        Path path = directory.resolve("catalog.snapshot");
+        CatalogSnapshot.capture(List.of(new TravelPackage(1, "Package 1", 20))).writeTo(path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[7] = 99;
+        Files.write(path, bytes);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> CatalogSnapshot.readFrom(path));
+    }
+
+    @Test
+    public void readFrom_shouldRejectTruncatedOrCorruptFileWithIOException() throws IOException {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackage.addPassenger(new Passenger("John Doe", 1, 100.0, "GOLD"));
+        Path path = directory.resolve("catalog.snapshot");
+        CatalogSnapshot.capture(List.of(travelPackage)).writeTo(path);
+        byte[] bytes = Files.readAllBytes(path);
+        Path damaged = directory.resolve("damaged.snapshot");
+
+        // Act & Assert
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(damaged, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> CatalogSnapshot.readFrom(damaged), "truncated to " + length + " bytes");
+        }
+        byte[] corrupt = bytes.clone();
+        corrupt[12] ^= 0x7F;
+        Files.write(damaged, corrupt);
+        assertThrows(IOException.class, () -> CatalogSnapshot.readFrom(damaged));
+    }
+}
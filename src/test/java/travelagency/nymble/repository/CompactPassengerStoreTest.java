@@ -0,0 +1,75 @@
+package travelagency.nymble.repository;
+
+import org.junit.jupiter.api.Test;
+import travelagency.nymble.dto.PassengerDetailsResponse;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.PassengerTier;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.service.TravelPackageService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactPassengerStoreTest {
+
+    @Test
+    public void add_shouldKeepEveryPassengerAcrossPages() {
+        // Arrange
+        CompactPassengerStore store = new CompactPassengerStore();
+        String[] types = {"STANDARD", "GOLD", "PREMIUM"};
+        List<Passenger> passengers = new ArrayList<>();
+
+        // Act
+        for (int number = 0; number < 40_000; number++) {
+            passengers.add(store.add("Passenger " + (number % 100), number, number / 100.0, types[number % 3]));
+        }
+
+        // Assert
+        assertEquals(40_000, store.size());
+        assertEquals(103, store.getInternedStringCount());
+        for (int number = 0; number < 40_000; number += 997) {
+            Passenger passenger = passengers.get(number);
+            assertEquals(number, passenger.getPassengerNumber());
+            assertEquals("Passenger " + (number % 100), passenger.getName());
+            assertEquals(types[number % 3], passenger.getPassengerType());
+            assertEquals(PassengerTier.values()[number % 3], passenger.getTier());
+            assertEquals(number, passenger.getBalanceMinorUnits());
+            assertTrue(passenger.getActivities().isEmpty());
+        }
+    }
+
+    @Test
+    public void storedPassenger_shouldSignUpThroughTheService() {
+        // Arrange
+        CompactPassengerStore store = new CompactPassengerStore();
+        TravelPackageService travelPackageService = new TravelPackageService(new CatalogStore());
+        travelPackageService.createTravelPackage(new TravelPackage(1, "Package 1", 20));
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Eiffel Tower Tour", "Guided tour", 50, 10, destination));
+        travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Louvre Visit", "Museum", 40, 10, destination));
+        Passenger gold = store.add("Emily Johnson", 1, 100, "GOLD");
+        Passenger unknown = store.add("Sarah Lee", 2, 100, "SILVER");
+        travelPackageService.addPassengerToTravelPackage("Package 1", gold);
+        travelPackageService.addPassengerToTravelPackage("Package 1", unknown);
+
+        // Act
+        travelPackageService.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris");
+        travelPackageService.signUpPassengerForActivity(1, "Louvre Visit", "Paris");
+        PassengerDetailsResponse details = travelPackageService.getPassengerDetails(1);
+
+        // Assert
+        assertEquals(19, gold.getBalance());
+        assertEquals(2, gold.getActivities().size());
+        assertEquals(19, details.balance());
+        assertEquals(List.of("Package 1"), details.travelPackages());
+        assertSame(gold, destination.getActivities().get(0).getSignedUpPassengers().get(0));
+        assertFalse(unknown.signUpForActivity(destination.getActivities().get(1)));
+        gold.removeActivity(destination.getActivities().get(0));
+        assertEquals("Louvre Visit", gold.getActivities().get(0).getName());
+    }
+}
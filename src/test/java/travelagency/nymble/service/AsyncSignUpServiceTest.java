@@ -0,0 +1,90 @@
+package travelagency.nymble.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import travelagency.nymble.dto.SignUpRequest;
+import travelagency.nymble.dto.SignUpTicketResponse;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.CatalogStore;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncSignUpServiceTest {
+
+    private AsyncSignUpService asyncSignUpService;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        asyncSignUpService.stop();
+    }
+
+    @Test
+    public void submit_shouldCompleteTicketWithSignUpResult() throws Exception {
+        // Arrange
+        asyncSignUpService = new AsyncSignUpService(travelPackageService(List.of()), 2, 10, 60);
+
+        // Act
+        String ticketId = asyncSignUpService.submit(new SignUpRequest(1, "Eiffel Tower Tour", "Paris"));
+        SignUpTicketResponse ticket = asyncSignUpService.getTicket(ticketId, 5_000).get();
+
+        // Assert
+        assertTrue(ticket.completed());
+        assertEquals(SignUpStatus.SIGNED_UP, ticket.result().status());
+        assertNull(asyncSignUpService.getTicket("unknown", 0).get());
+    }
+
+    @Test
+    public void submit_shouldRefuseSignUpsWhenQueueIsFull() throws Exception {
+        // Arrange
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BookingListener blockingListener = (passenger, activity, price) -> {
+            workerBusy.countDown();
+            awaitQuietly(release);
+        };
+        asyncSignUpService = new AsyncSignUpService(travelPackageService(List.of(blockingListener)), 1, 1, 60);
+
+        // Act
+        String running = asyncSignUpService.submit(new SignUpRequest(1, "Eiffel Tower Tour", "Paris"));
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+        String queued = asyncSignUpService.submit(new SignUpRequest(2, "Eiffel Tower Tour", "Paris"));
+        String refused = asyncSignUpService.submit(new SignUpRequest(2, "Eiffel Tower Tour", "Paris"));
+        SignUpTicketResponse pending = asyncSignUpService.getTicket(queued, 0).get();
+        release.countDown();
+
+        // Assert
+        assertNotNull(running);
+        assertNotNull(queued);
+        assertNull(refused);
+        assertFalse(pending.completed());
+        assertTrue(asyncSignUpService.getTicket(queued, 5_000).get().completed());
+        assertTrue(asyncSignUpService.getRetryAfterSeconds() >= 1);
+    }
+
+    private static TravelPackageService travelPackageService(List<BookingListener> listeners) {
+        TravelPackageService travelPackageService = new TravelPackageService(new CatalogStore(), listeners);
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Eiffel Tower Tour", "Guided tour", 50, 10, destination));
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("John Doe", 1, 100, "GOLD"));
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("Emily Johnson", 2, 100, "STANDARD"));
+        return travelPackageService;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package travelagency.nymble.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import travelagency.nymble.dao.ActivityDAO;
+import travelagency.nymble.dao.BookingDAO;
+import travelagency.nymble.dao.PassengerDAO;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Passenger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BookingWriteBehindTest {
+
+    @Test
+    public void stop_shouldRetryFailedBatchAndDebitPassengersByRowId() throws Exception {
+        // Arrange
+        BookingDAO bookingDAO = mock(BookingDAO.class);
+        PassengerDAO passengerDAO = mock(PassengerDAO.class);
+        ActivityDAO activityDAO = mock(ActivityDAO.class);
+        doThrow(new CannotAcquireLockException("Deadlock found"))
+                .doNothing()
+                .when(bookingDAO).saveBookings(anyMap(), anyMap(), anyList());
+        when(passengerDAO.findIdsByPassengerNumbers(any())).thenReturn(Map.of(1, List.of(42), 2, List.of(50, 51)));
+        BookingWriteBehind writeBehind = new BookingWriteBehind(bookingDAO, passengerDAO, activityDAO, 10, 10, 10, 3, 1);
+        Activity activity = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, 10, null);
+        activity.setId(7);
+        writeBehind.onSignedUp(new Passenger("John Smith", 1, 500, "STANDARD"), activity, 50);
+        writeBehind.onSignedUp(new Passenger("Emily Johnson", 2, 1000, "GOLD"), activity, 45);
+
+        // Act
+        writeBehind.start();
+        writeBehind.stop();
+
+        // Assert
+        verify(bookingDAO, times(2)).saveBookings(eq(Map.of(42, 50.0)), eq(Map.of(7, 1)), argThat(signUps -> signUps.size() == 1));
+        verify(passengerDAO, times(2)).findIdsByPassengerNumbers(Set.of(1, 2));
+        verify(passengerDAO).evict(42);
+        verify(passengerDAO, never()).evict(50);
+        verify(passengerDAO, never()).evictAll();
+        verify(activityDAO).evict(7);
+        assertEquals(0, writeBehind.getPendingMutations());
+    }
+
+    @Test
+    public void stop_shouldGiveUpOnBatchAfterMaxAttempts() throws Exception {
+        // Arrange
+        BookingDAO bookingDAO = mock(BookingDAO.class);
+        PassengerDAO passengerDAO = mock(PassengerDAO.class);
+        ActivityDAO activityDAO = mock(ActivityDAO.class);
+        doThrow(new CannotAcquireLockException("Deadlock found"))
+                .when(bookingDAO).saveBookings(anyMap(), anyMap(), anyList());
+        BookingWriteBehind writeBehind = new BookingWriteBehind(bookingDAO, passengerDAO, activityDAO, 10, 10, 10, 3, 1);
+        Activity activity = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, 10, null);
+        activity.setId(7);
+        writeBehind.start();
+
+        // Act
+        writeBehind.onSignedUp(new Passenger("John Smith", 1, 500, "STANDARD"), activity, 50);
+        writeBehind.stop();
+
+        // Assert
+        verify(bookingDAO, times(3)).saveBookings(anyMap(), anyMap(), anyList());
+        verify(activityDAO, never()).evict(anyInt());
+        verify(passengerDAO, never()).evict(anyInt());
+    }
+}
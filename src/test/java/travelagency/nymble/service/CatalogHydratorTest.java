@@ -0,0 +1,75 @@
+package travelagency.nymble.service;
+
+import org.junit.jupiter.api.Test;
+import travelagency.nymble.dao.ActivityDAO;
+import travelagency.nymble.dao.DestinationDAO;
+import travelagency.nymble.dao.PassengerDAO;
+import travelagency.nymble.dao.TravelPackageDAO;
+import travelagency.nymble.model.Activity;
+import travelagency.nymble.model.Destination;
+import travelagency.nymble.model.Passenger;
+import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.CatalogStore;
+import travelagency.nymble.repository.TravelPackageRepository;
+
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class CatalogHydratorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void hydrate_shouldWireAllTablesIntoServiceAndRepository() {
+        // Arrange
+        TravelPackageDAO travelPackageDAO = mock(TravelPackageDAO.class);
+        DestinationDAO destinationDAO = mock(DestinationDAO.class);
+        ActivityDAO activityDAO = mock(ActivityDAO.class);
+        PassengerDAO passengerDAO = mock(PassengerDAO.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(new TravelPackage(1, "Package 1", 20));
+            return null;
+        }).when(travelPackageDAO).streamAll(any(Consumer.class));
+        doAnswer(invocation -> {
+            ObjIntConsumer<Destination> consumer = invocation.getArgument(0);
+            consumer.accept(new Destination(1, "Paris"), 1);
+            consumer.accept(new Destination(2, "Atlantis"), 99);
+            return null;
+        }).when(destinationDAO).streamAll(any(ObjIntConsumer.class));
+        doAnswer(invocation -> {
+            ObjIntConsumer<Activity> consumer = invocation.getArgument(0);
+            consumer.accept(new Activity("Sightseeing", "Explore the city", 50.0, 10, null), 1);
+            return null;
+        }).when(activityDAO).streamAll(any(ObjIntConsumer.class));
+        doAnswer(invocation -> {
+            ObjIntConsumer<Passenger> consumer = invocation.getArgument(0);
+            consumer.accept(new Passenger("John Doe", 1, 100.0, "STANDARD"), 1);
+            return null;
+        }).when(passengerDAO).streamAll(any(ObjIntConsumer.class));
+
+        CatalogStore catalogStore = new CatalogStore();
+        TravelPackageService travelPackageService = new TravelPackageService(catalogStore);
+        CatalogHydrator catalogHydrator = new CatalogHydrator(
+                travelPackageService, travelPackageDAO, destinationDAO, activityDAO, passengerDAO, true);
+
+        // Act
+        HydrationReport report = catalogHydrator.hydrate();
+
+        // Assert
+        assertEquals(1, report.travelPackages());
+        assertEquals(2, report.destinations());
+        assertEquals(1, report.activities());
+        assertEquals(1, report.passengers());
+        assertEquals(1, report.orphans());
+        TravelPackage travelPackage = new TravelPackageRepository(catalogStore).findTravelPackageByName("Package 1");
+        assertEquals(1, travelPackage.getDestinations().size());
+        assertEquals(1, travelPackage.getPassengers().size());
+        Activity activity = catalogStore.findActivity("Package 1", "Paris", "Sightseeing");
+        assertNotNull(activity);
+        assertEquals("Paris", activity.getDestination().getName());
+    }
+}
@@ -0,0 +1,108 @@
+package travelagency.nymble.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import travelagency.nymble.dto.SignUpRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyServiceTest {
+
+    @Test
+    public void execute_shouldReplayOutcomeAndRunConcurrentDuplicatesOnce() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = new IdempotencyService(100, 60, 5000, new SimpleMeterRegistry());
+        SignUpRequest request = new SignUpRequest(1, "Eiffel Tower Tour", "Paris");
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> idempotencyService.execute("key-1", request, () -> {
+            runs.incrementAndGet();
+            running.countDown();
+            awaitQuietly(release);
+            return "signed up";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() -> idempotencyService.execute("key-1", request, () -> {
+            runs.incrementAndGet();
+            return "signed up twice";
+        }));
+        release.countDown();
+        String replayed = idempotencyService.execute("key-1", new SignUpRequest(1, "Eiffel Tower Tour", "Paris"), () -> {
+            runs.incrementAndGet();
+            return "signed up again";
+        });
+
+        // Assert
+        assertEquals("signed up", first.get(5, TimeUnit.SECONDS));
+        assertEquals("signed up", duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals("signed up", replayed);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void execute_shouldRejectKeyReusedForDifferentRequestAndForgetUnexpectedFailures() {
+        // Arrange
+        IdempotencyService idempotencyService = new IdempotencyService(100, 60, 5000, new SimpleMeterRegistry());
+        SignUpRequest request = new SignUpRequest(1, "Eiffel Tower Tour", "Paris");
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("sold-out", request, () -> {
+            throw new IllegalStateException("Activity is already fully booked.");
+        }));
+        assertThrows(UnsupportedOperationException.class, () -> idempotencyService.execute("broken", request, () -> {
+            throw new UnsupportedOperationException("Database unavailable.");
+        }));
+
+        // Act
+        String retried = idempotencyService.execute("broken", request, () -> "signed up");
+
+        // Assert
+        assertEquals("signed up", retried);
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("sold-out", request, () -> "signed up"));
+        assertThrows(IdempotencyService.IdempotencyKeyConflictException.class,
+                () -> idempotencyService.execute("sold-out", new SignUpRequest(2, "Eiffel Tower Tour", "Paris"), () -> "signed up"));
+    }
+
+    @Test
+    public void execute_shouldForgetKeyAfterErrorAndStopWaitingForStuckRequest() throws Exception {
+        // Arrange
+        IdempotencyService idempotencyService = new IdempotencyService(100, 60, 50, new SimpleMeterRegistry());
+        SignUpRequest request = new SignUpRequest(1, "Eiffel Tower Tour", "Paris");
+        assertThrows(StackOverflowError.class, () -> idempotencyService.execute("error", request, () -> {
+            throw new StackOverflowError();
+        }));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> stuck = CompletableFuture.supplyAsync(() -> idempotencyService.execute("stuck", request, () -> {
+            running.countDown();
+            awaitQuietly(release);
+            return "signed up";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // Act
+        String retried = idempotencyService.execute("error", request, () -> "signed up");
+
+        // Assert
+        assertEquals("signed up", retried);
+        assertThrows(IdempotencyService.IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute("stuck", request, () -> "signed up twice"));
+        release.countDown();
+        assertEquals("signed up", stuck.get(5, TimeUnit.SECONDS));
+        assertEquals("signed up", idempotencyService.execute("stuck", request, () -> "signed up twice"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
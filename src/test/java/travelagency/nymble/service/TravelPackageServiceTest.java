@@ -1,13 +1,36 @@
 package travelagency.nymble.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import travelagency.nymble.dto.AffordableActivitiesResponse;
+import travelagency.nymble.dto.PassengerDetailsResponse;
+import travelagency.nymble.dto.SignUpRequest;
+import travelagency.nymble.dto.SignUpResult;
 import travelagency.nymble.model.Activity;
 import travelagency.nymble.model.Destination;
 import travelagency.nymble.model.Passenger;
 import travelagency.nymble.model.TravelPackage;
+import travelagency.nymble.repository.BookingJournal;
+import travelagency.nymble.repository.CatalogStore;
+import travelagency.nymble.repository.TravelPackageRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class TravelPackageServiceTest {
 
@@ -264,5 +287,331 @@ public class TravelPackageServiceTest {
         assertEquals("Destination with name Goa not found.", exception.getMessage());
     }
 
-}
+    @Test
+    public void signUpPassengerForActivity_withPackageAddedThroughRepository_shouldUseSharedCatalog() {
+        // Arrange
+        CatalogStore catalogStore = new CatalogStore();
+        TravelPackageRepository travelPackageRepository = new TravelPackageRepository(catalogStore);
+        travelPackageService = new TravelPackageService(catalogStore);
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageRepository.addTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageRepository.addDestinationToTravelPackage("Package 1", destination);
+        Activity activity = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, 10, destination);
+        travelPackageRepository.addActivityToDestination("Package 1", "Paris", activity);
+        Passenger passenger = new Passenger("John Smith", 1, 500, "STANDARD");
+        travelPackageRepository.addPassengerToTravelPackage("Package 1", passenger);
+
+        // Act
+        travelPackageService.signUpPassengerForActivity(passenger.getPassengerNumber(), activity.getName(), destination.getName());
+
+        // Assert
+        assertEquals(1, travelPackageService.getTravelPackages().size());
+        assertEquals(activity, catalogStore.findActivity("Package 1", "Paris", "Eiffel Tower Tour"));
+        assertEquals(9, activity.getCapacity());
+        assertEquals(450, passenger.getBalance());
+    }
+
+    @Test
+    public void signUpPassengerForActivity_withConcurrentSignUps_shouldKeepBalanceAndRostersConsistent() throws InterruptedException {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        int activityCount = 16;
+        for (int i = 0; i < activityCount; i++) {
+            travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Tour " + i, "Guided tour", 50, 100, destination));
+        }
+        Passenger passenger = new Passenger("John Smith", 1, 500, "STANDARD");
+        travelPackageService.addPassengerToTravelPackage(travelPackage.getName(), passenger);
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 64 * activityCount; i++) {
+            String activityName = "Tour " + (i % activityCount);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    travelPackageService.signUpPassengerForActivity(1, activityName, "Paris");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert
+        int seatsTaken = 0;
+        int rosterEntries = 0;
+        for (Activity activity : destination.getActivities()) {
+            seatsTaken += 100 - activity.getCapacity();
+            rosterEntries += activity.getSignedUpPassengers().size();
+        }
+        assertEquals(10, passenger.getActivities().size()); // 500 balance buys exactly ten 50-cost activities
+        assertEquals(10, seatsTaken);
+        assertEquals(10, rosterEntries);
+        assertEquals(0, passenger.getBalance());
+    }
+
+    @Test
+    public void signUpPassengersForActivities_shouldReturnResultPerRequestInOrder() {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        Activity activity = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, 2, destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", activity);
+        Passenger passenger1 = new Passenger("John Smith", 1, 500, "STANDARD");
+        Passenger passenger2 = new Passenger("Michael Davis", 2, 20, "STANDARD");
+        Passenger passenger3 = new Passenger("Emily Johnson", 3, 1000, "GOLD");
+        Passenger passenger4 = new Passenger("Sarah Wilson", 4, 0, "PREMIUM");
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger1);
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger2);
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger3);
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger4);
+
+        // Act
+        List<SignUpResult> results = travelPackageService.signUpPassengersForActivities(List.of(
+                new SignUpRequest(1, "Eiffel Tower Tour", "Paris"),
+                new SignUpRequest(2, "Eiffel Tower Tour", "Paris"),
+                new SignUpRequest(10, "Eiffel Tower Tour", "Paris"),
+                new SignUpRequest(3, "Eiffel Tower Tour", "Paris"),
+                new SignUpRequest(4, "Eiffel Tower Tour", "Paris"),
+                new SignUpRequest(1, "Scuba Diving", "Paris")
+        ));
+
+        // Assert
+        assertEquals(SignUpStatus.SIGNED_UP, results.get(0).status());
+        assertEquals(SignUpStatus.INSUFFICIENT_BALANCE, results.get(1).status());
+        assertEquals(SignUpStatus.NOT_FOUND, results.get(2).status());
+        assertEquals(SignUpStatus.SIGNED_UP, results.get(3).status()); // Seat left over by passenger 2 is reused
+        assertEquals(SignUpStatus.SOLD_OUT, results.get(4).status());
+        assertEquals(SignUpStatus.NOT_FOUND, results.get(5).status());
+        assertEquals(0, activity.getCapacity());
+        assertEquals(2, activity.getSignedUpPassengers().size());
+        assertEquals(450, passenger1.getBalance());
+        assertEquals(20, passenger2.getBalance());
+        assertEquals(955, passenger3.getBalance());
+    }
+
+    @Test
+    public void signUp_whenJournalCannotFlush_shouldUndoBookingsAndNotifyNoOne() {
+        // Arrange
+        BookingJournal bookingJournal = mock(BookingJournal.class);
+        when(bookingJournal.append(anyInt(), anyInt(), anyDouble())).thenReturn(1L, 2L, 3L);
+        doThrow(new UncheckedIOException("The booking journal could not be flushed to disk.", new IOException("disk full")))
+                .when(bookingJournal).awaitDurable(anyLong());
+        List<Passenger> notified = new ArrayList<>();
+        TravelPackageService service = new TravelPackageService(new CatalogStore(),
+                List.of((passenger, activity, price) -> notified.add(passenger)), bookingJournal);
+        service.createTravelPackage(new TravelPackage(1, "Package 1", 20));
+        Destination destination = new Destination(1, "Paris");
+        service.addDestinationToTravelPackage("Package 1", destination);
+        Activity activity = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, 10, destination);
+        activity.setId(7);
+        service.addActivityToDestination("Package 1", "Paris", activity);
+        Passenger passenger1 = new Passenger("John Smith", 1, 500, "STANDARD");
+        Passenger passenger2 = new Passenger("Emily Johnson", 2, 1000, "GOLD");
+        service.addPassengerToTravelPackage("Package 1", passenger1);
+        service.addPassengerToTravelPackage("Package 1", passenger2);
+
+        // Act
+        assertThrows(UncheckedIOException.class, () -> service.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris"));
+        List<SignUpResult> results = service.signUpPassengersForActivities(List.of(
+                new SignUpRequest(1, "Eiffel Tower Tour", "Paris"),
+                new SignUpRequest(2, "Eiffel Tower Tour", "Paris")
+        ));
+
+        // Assert
+        assertEquals(SignUpStatus.FAILED, results.get(0).status());
+        assertEquals(SignUpStatus.FAILED, results.get(1).status());
+        assertEquals(10, activity.getCapacity());
+        assertTrue(activity.getSignedUpPassengers().isEmpty());
+        assertTrue(passenger1.getActivities().isEmpty());
+        assertTrue(passenger2.getActivities().isEmpty());
+        assertEquals(500, passenger1.getBalance());
+        assertEquals(1000, passenger2.getBalance());
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    public void getPassengerDetails_shouldReturnBalanceAndSignedUpActivities() {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        Activity activity = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, 10, destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", activity);
+        Passenger passenger = new Passenger("John Smith", 1, 500, "STANDARD");
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger);
+        travelPackageService.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris");
+
+        // Act
+        PassengerDetailsResponse details = travelPackageService.getPassengerDetails(1);
+
+        // Assert
+        assertEquals("John Smith", details.name());
+        assertEquals(450, details.balance());
+        assertEquals(1, details.activities().size());
+        assertEquals("Paris", details.activities().get(0).destinationName());
+        assertNull(travelPackageService.getPassengerDetails(10));
+        assertNull(travelPackageService.getItinerary("Package 2"));
+    }
+
+    @Test
+    public void getPassengerDetails_shouldListEveryPackageThePassengerIsEnrolledIn() {
+        // Arrange
+        travelPackageService.createTravelPackage(new TravelPackage(1, "Package 1", 20));
+        travelPackageService.createTravelPackage(new TravelPackage(2, "Package 2", 20));
+        Passenger passenger = new Passenger("John Smith", 1, 500, "STANDARD");
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger);
+        travelPackageService.addPassengerToTravelPackage("Package 2", passenger);
+        travelPackageService.addPassengerToTravelPackage("Package 2", new Passenger("Emily Johnson", 2, 500, "GOLD"));
 
+        // Act
+        PassengerDetailsResponse details = travelPackageService.getPassengerDetails(1);
+
+        // Assert
+        assertEquals(List.of("Package 1", "Package 2"), details.travelPackages());
+        assertEquals(List.of("Package 2"), travelPackageService.getPassengerDetails(2).travelPackages());
+    }
+
+    @Test
+    public void getAvailableActivities_shouldFollowSellOutsAndReleases() {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        Activity tour = new Activity("Eiffel Tower Tour", "Visit the iconic Eiffel Tower", 50, 1, destination);
+        Activity cruise = new Activity("Seine Cruise", "Cruise along the Seine", 30, 5, destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", tour);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", cruise);
+        Passenger passenger = new Passenger("John Smith", 1, 500, "STANDARD");
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger);
+
+        // Act & Assert
+        assertEquals(List.of(tour, cruise), travelPackageService.getAvailableActivities());
+        travelPackageService.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris");
+        assertEquals(List.of(cruise), travelPackageService.getAvailableActivities());
+        tour.releaseAvailability();
+        assertEquals(List.of(tour, cruise), travelPackageService.getAvailableActivities());
+        cruise.setCapacity(0);
+        assertEquals(List.of(tour), travelPackageService.getAvailableActivities());
+    }
+
+    @Test
+    public void getAffordableActivities_shouldPageThroughAffordableAvailableActivitiesCheapestFirst() {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        for (int cost : new int[]{50, 30, 10, 40, 20}) {
+            travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Tour " + cost, "Guided tour", cost, 5, destination));
+        }
+        travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Sold Out Tour", "Guided tour", 5, 0, destination));
+        Passenger passenger = new Passenger("Emily Johnson", 2, 36, "GOLD");
+        travelPackageService.addPassengerToTravelPackage("Package 1", passenger);
+
+        // Act
+        AffordableActivitiesResponse firstPage = travelPackageService.getAffordableActivities(2, null, null, 2);
+        AffordableActivitiesResponse secondPage = travelPackageService.getAffordableActivities(2, firstPage.nextAfterCost(), firstPage.nextAfterId(), 2);
+        AffordableActivitiesResponse thirdPage = travelPackageService.getAffordableActivities(2, secondPage.nextAfterCost(), secondPage.nextAfterId(), 2);
+
+        // Assert
+        assertEquals(List.of("Tour 10", "Tour 20"), firstPage.activities().stream().map(a -> a.activity().name()).toList());
+        assertEquals(List.of("Tour 30", "Tour 40"), secondPage.activities().stream().map(a -> a.activity().name()).toList());
+        assertEquals(36, secondPage.activities().get(1).price(), 1e-9); // 10% discount on 40
+        assertTrue(thirdPage.activities().isEmpty());
+        assertNull(thirdPage.nextAfterCost());
+        assertNull(travelPackageService.getAffordableActivities(10, null, null, 2));
+    }
+
+    @Test
+    public void getAffordableActivities_shouldReturnEmptyPageWhenCursorIsAboveAffordableCost() {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Tour 10", "Guided tour", 10, 5, destination));
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("John Doe", 1, 20, "STANDARD"));
+
+        // Act
+        AffordableActivitiesResponse page = travelPackageService.getAffordableActivities(1, 1_000_000.0, 1L, 2);
+
+        // Assert
+        assertTrue(page.activities().isEmpty());
+        assertNull(page.nextAfterCost());
+    }
+
+    @Test
+    public void getAffordableActivities_shouldRejectIncompleteOrNegativeCursor() {
+        // Arrange
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("John Doe", 1, 20, "STANDARD"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> travelPackageService.getAffordableActivities(1, 10.0, null, 2));
+        assertThrows(IllegalArgumentException.class, () -> travelPackageService.getAffordableActivities(1, null, 1L, 2));
+        assertThrows(IllegalArgumentException.class, () -> travelPackageService.getAffordableActivities(1, -1.0, 1L, 2));
+        assertThrows(IllegalArgumentException.class, () -> travelPackageService.getAffordableActivities(1, 10.0, -1L, 2));
+    }
+
+    @Test
+    public void signUpPassengerForActivity_shouldNotifyBookingListenersOnlyOnSuccess() {
+        // Arrange
+        List<String> bookings = new ArrayList<>();
+        travelPackageService = new TravelPackageService(new CatalogStore(),
+                List.of((passenger, activity, price) -> bookings.add(passenger.getPassengerNumber() + ":" + activity.getName() + ":" + price)));
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Eiffel Tower Tour", "Guided tour", 50, 1, destination));
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("John Doe", 1, 100, "GOLD"));
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("Emily Johnson", 2, 100, "STANDARD"));
+
+        // Act
+        travelPackageService.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris");
+        List<SignUpResult> results = travelPackageService.signUpPassengersForActivities(List.of(new SignUpRequest(2, "Eiffel Tower Tour", "Paris")));
+
+        // Assert
+        assertEquals(List.of("1:Eiffel Tower Tour:45.0"), bookings);
+        assertEquals(SignUpStatus.SOLD_OUT, results.get(0).status());
+    }
+
+    @Test
+    public void signUp_shouldCountOutcomesAndTimeRequests() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        travelPackageService = new TravelPackageService(new CatalogStore(), List.of(), null, meterRegistry);
+        TravelPackage travelPackage = new TravelPackage(1, "Package 1", 20);
+        travelPackageService.createTravelPackage(travelPackage);
+        Destination destination = new Destination(1, "Paris");
+        travelPackageService.addDestinationToTravelPackage("Package 1", destination);
+        travelPackageService.addActivityToDestination("Package 1", "Paris", new Activity("Eiffel Tower Tour", "Guided tour", 50, 1, destination));
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("John Doe", 1, 100, "GOLD"));
+        travelPackageService.addPassengerToTravelPackage("Package 1", new Passenger("Emily Johnson", 2, 100, "STANDARD"));
+
+        // Act
+        travelPackageService.signUpPassengerForActivity(1, "Eiffel Tower Tour", "Paris");
+        assertThrows(IllegalStateException.class, () -> travelPackageService.signUpPassengerForActivity(2, "Eiffel Tower Tour", "Paris"));
+        travelPackageService.signUpPassengersForActivities(List.of(new SignUpRequest(3, "Eiffel Tower Tour", "Paris")));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("nymble.sign-ups").tag("outcome", "signed_up").counter().count());
+        assertEquals(1, meterRegistry.get("nymble.sign-ups").tag("outcome", "sold_out").counter().count());
+        assertEquals(1, meterRegistry.get("nymble.sign-ups").tag("outcome", "not_found").counter().count());
+        assertEquals(2, meterRegistry.get("nymble.sign-up").tag("mode", "single").timer().count());
+        assertEquals(1, meterRegistry.get("nymble.sign-up").tag("mode", "bulk").timer().count());
+    }
+}
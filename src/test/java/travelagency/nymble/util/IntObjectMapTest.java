@@ -0,0 +1,79 @@
+package travelagency.nymble.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntObjectMapTest {
+
+    @Test
+    public void put_shouldKeepEveryEntryAcrossResizes() {
+        // Arrange
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        // Act
+        for (int key = -5_000; key < 5_000; key++) {
+            map.put(key * 1024, "value " + key);
+        }
+
+        // Assert
+        assertEquals(10_000, map.size());
+        for (int key = -5_000; key < 5_000; key++) {
+            assertEquals("value " + key, map.get(key * 1024));
+        }
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void putIfAbsent_shouldKeepTheFirstValue() {
+        // Arrange
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        // Act
+        String first = map.putIfAbsent(0, "first");
+        String second = map.putIfAbsent(0, "second");
+        String replaced = map.put(0, "third");
+
+        // Assert
+        assertNull(first);
+        assertEquals("first", second);
+        assertEquals("first", replaced);
+        assertEquals("third", map.get(0));
+        assertEquals(1, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    public void get_whileAnotherThreadInserts_shouldAlwaysSeeEarlierEntries() throws Exception {
+        // Arrange
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+
+        // Act
+        writer.submit(() -> {
+            for (int key = 100; key < 200_000; key++) {
+                map.put(key, key);
+            }
+        });
+        boolean allFound = true;
+        for (int round = 0; round < 2_000; round++) {
+            for (int key = 0; key < 100; key++) {
+                Integer value = map.get(key);
+                allFound &= value != null && value == key;
+            }
+        }
+        writer.shutdown();
+
+        // Assert
+        assertTrue(writer.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(allFound);
+        assertEquals(200_000, map.size());
+    }
+}